@@ -0,0 +1,97 @@
+package com.indicator.viewpager.benchmark;
+
+import com.indicator.viewpager.IndicatorLayout;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the indicator geometry per frame: laying out the dots, mapping a scroll position to the
+ * fill dot, hit-testing taps and measuring, for 3 up to 1000 pages. {@code visibleDotCount} -1
+ * draws one dot per page, 7 is the windowed mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorLayoutBenchmark {
+
+  @Param({ "3", "10", "100", "1000" })
+  public int dotCount;
+
+  @Param({ "-1", "7" })
+  public int visibleDotCount;
+
+  private final IndicatorLayout mLayout = new IndicatorLayout();
+  private int mMeasureSpec;
+  private int mPosition;
+  private float mOffset;
+  private float mTapX;
+
+  @Setup public void setUp() {
+    mLayout.setRadius(9);
+    mLayout.setPointMargin(12);
+    mLayout.setStrokeWidth(1.5f);
+    mLayout.setCentered(true);
+    mLayout.setVisibleDotCount(visibleDotCount);
+    mLayout.setBounds(1080, 60, 24, 12, 24, 12);
+    mLayout.layout(mLayout.getDrawnDotCount(dotCount));
+    mMeasureSpec = IndicatorLayout.makeMeasureSpec(1080, IndicatorLayout.AT_MOST);
+  }
+
+  /** Full relayout, as after a size, padding or style change. */
+  @Benchmark public float[] dotPositions() {
+    // Any setter marks the layout stale
+    mLayout.setCentered(true);
+    mLayout.layout(mLayout.getDrawnDotCount(dotCount));
+    return mLayout.getDotCenters();
+  }
+
+  /** One onPageScrolled + onDraw step of a looping pager sweeping across all pages. */
+  @Benchmark public void scrollMapping(Blackhole blackhole) {
+    mOffset += 0.05f;
+    if (mOffset >= 1f) {
+      mOffset = 0;
+      mPosition = (mPosition + 1) % dotCount;
+    }
+    final int page =
+        IndicatorLayout.mapScrollPage(mPosition, mOffset, mPosition == dotCount - 1);
+    final float offset = mOffset - (page - mPosition);
+    final int point = page % dotCount;
+    if (mLayout.needsRelayout(point, dotCount)) {
+      mLayout.layout(mLayout.getDrawnDotCount(dotCount));
+      mLayout.updateWindow(point, dotCount);
+    }
+    blackhole.consume(mLayout.getFillX(point, offset));
+    blackhole.consume(mLayout.getFillY(point, offset));
+  }
+
+  /**
+   * Dot hit-testing of a tap sweeping along the row and mapping the dot to its page. Run with
+   * {@code -prof gc} to check that the touch path allocates nothing.
+   */
+  @Benchmark public int tapHitTest() {
+    mTapX += mLayout.getStep() / 3;
+    if (mTapX > 1080) {
+      mTapX = 0;
+    }
+    final int dot = mLayout.hitTest(mTapX, 21, 8);
+    return dot < 0 ? dot : IndicatorLayout.toCyclePage(mLayout.getWindowStart() + dot, 0, dotCount);
+  }
+
+  @Benchmark public int measure() {
+    return mLayout.measureLong(mMeasureSpec, dotCount) + mLayout.measureShort(mMeasureSpec);
+  }
+}
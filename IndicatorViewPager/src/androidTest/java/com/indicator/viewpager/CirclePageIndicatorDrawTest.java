@@ -0,0 +1,78 @@
+package com.indicator.viewpager;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.test.AndroidTestCase;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * The unselected dots are a child of the indicator that scrolling leaves alone, so hardware
+ * windows keep replaying its display list; only changes to the dots invalidate it.
+ */
+public class CirclePageIndicatorDrawTest extends AndroidTestCase {
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 60;
+
+  private static final class PlainAdapter extends PagerAdapter {
+    @Override public int getCount() {
+      return 3;
+    }
+
+    @Override public Object instantiateItem(ViewGroup container, int position) {
+      final View page = new View(container.getContext());
+      container.addView(page);
+      return page;
+    }
+
+    @Override public void destroyItem(ViewGroup container, int position, Object object) {
+      container.removeView((View) object);
+    }
+
+    @Override public boolean isViewFromObject(View view, Object object) {
+      return view == object;
+    }
+  }
+
+  private CirclePageIndicator mIndicator;
+  private View mStaticDots;
+  private Canvas mCanvas;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    final ViewPager pager = new ViewPager(getContext());
+    pager.setAdapter(new PlainAdapter());
+    mIndicator = new CirclePageIndicator(getContext());
+    mIndicator.setViewPager(pager);
+    mIndicator.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    mIndicator.layout(0, 0, WIDTH, HEIGHT);
+    assertEquals(1, mIndicator.getChildCount());
+    mStaticDots = mIndicator.getChildAt(0);
+    mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+    mIndicator.draw(mCanvas);
+  }
+
+  public void testScrollingLeavesTheDotsAlone() {
+    assertFalse(mStaticDots.isDirty());
+    for (int i = 1; i < 10; i++) {
+      mIndicator.onPageScrolled(0, i / 10f, WIDTH * i / 10);
+      assertFalse(mStaticDots.isDirty());
+      mIndicator.draw(mCanvas);
+    }
+    mIndicator.onPageSelected(1);
+    mIndicator.onPageScrolled(1, 0, 0);
+    assertFalse(mStaticDots.isDirty());
+  }
+
+  public void testChangingTheDotsInvalidatesThem() {
+    mIndicator.setPageColor(0xff00ff00);
+    assertTrue(mStaticDots.isDirty());
+    mIndicator.draw(mCanvas);
+    assertFalse(mStaticDots.isDirty());
+    mIndicator.setStrokeColor(0xff0000ff);
+    assertTrue(mStaticDots.isDirty());
+  }
+}
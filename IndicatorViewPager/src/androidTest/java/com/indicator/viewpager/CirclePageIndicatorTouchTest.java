@@ -0,0 +1,173 @@
+package com.indicator.viewpager;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.test.AndroidTestCase;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+/**
+ * Drives whole gestures through {@link CirclePageIndicator#onTouchEvent}: a fake drag that a
+ * second pointer takes over, a cancelled drag and a tap on a dot, counting what they allocate.
+ */
+public class CirclePageIndicatorTouchTest extends AndroidTestCase {
+  private static final int WIDTH = 1080;
+  private static final int PAGER_HEIGHT = 600;
+  private static final int INDICATOR_HEIGHT = 60;
+  private static final int PAGES = 3;
+
+  /** Every page stays alive, so moving between them instantiates nothing. */
+  private static final class PlainAdapter extends PagerAdapter {
+    @Override public int getCount() {
+      return PAGES;
+    }
+
+    @Override public Object instantiateItem(ViewGroup container, int position) {
+      final View page = new View(container.getContext());
+      container.addView(page);
+      return page;
+    }
+
+    @Override public void destroyItem(ViewGroup container, int position, Object object) {
+      container.removeView((View) object);
+    }
+
+    @Override public boolean isViewFromObject(View view, Object object) {
+      return view == object;
+    }
+  }
+
+  private ViewPager mPager;
+  private CirclePageIndicator mIndicator;
+  private MotionEvent[] mEvents;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    mPager = new ViewPager(getContext());
+    mPager.setOffscreenPageLimit(PAGES - 1);
+    mPager.setAdapter(new PlainAdapter());
+    layOut(mPager, PAGER_HEIGHT);
+
+    mIndicator = new CirclePageIndicator(getContext());
+    mIndicator.setCentered(true);
+    mIndicator.setViewPager(mPager);
+    layOut(mIndicator, INDICATOR_HEIGHT);
+    // The dot layout is computed while drawing, taps only hit-test a laid out row
+    mIndicator.draw(new Canvas(Bitmap.createBitmap(WIDTH, INDICATOR_HEIGHT,
+        Bitmap.Config.ARGB_8888)));
+
+    mEvents = obtainGestures();
+  }
+
+  @Override protected void tearDown() throws Exception {
+    for (MotionEvent event : mEvents) {
+      event.recycle();
+    }
+    super.tearDown();
+  }
+
+  private static void layOut(View view, int height) {
+    view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, WIDTH, height);
+  }
+
+  /**
+   * A drag of pointer 0 that pointer 1 joins and takes over when pointer 0 goes up, a drag that
+   * is cancelled, then a tap on the middle dot.
+   */
+  private MotionEvent[] obtainGestures() {
+    final float step = ViewConfiguration.get(getContext()).getScaledPagingTouchSlop() * 2;
+    final float y = INDICATOR_HEIGHT / 2f;
+    final float x0 = WIDTH * 3 / 4f;
+    final float x1 = WIDTH / 4f;
+    final long time = SystemClock.uptimeMillis();
+    return new MotionEvent[] {
+        event(time, MotionEvent.ACTION_DOWN, x0, y),
+        event(time, MotionEvent.ACTION_MOVE, x0 - step, y),
+        event(time, MotionEvent.ACTION_MOVE, x0 - step * 2, y),
+        event(time, pointerAction(MotionEvent.ACTION_POINTER_DOWN, 1), x0 - step * 2, y, x1, y),
+        event(time, MotionEvent.ACTION_MOVE, x0 - step * 3, y, x1 - step, y),
+        event(time, pointerAction(MotionEvent.ACTION_POINTER_UP, 0), x0 - step * 3, y,
+            x1 - step, y),
+        event(time, MotionEvent.ACTION_MOVE, x1 - step * 2, y, 1),
+        event(time, MotionEvent.ACTION_UP, x1 - step * 2, y, 1),
+
+        event(time, MotionEvent.ACTION_DOWN, x1, y),
+        event(time, MotionEvent.ACTION_MOVE, x1 + step, y),
+        event(time, MotionEvent.ACTION_MOVE, x1 + step * 2, y),
+        event(time, MotionEvent.ACTION_CANCEL, x1 + step * 2, y),
+
+        event(time, MotionEvent.ACTION_DOWN, WIDTH / 2f, y),
+        event(time, MotionEvent.ACTION_UP, WIDTH / 2f, y),
+    };
+  }
+
+  private static int pointerAction(int action, int pointerIndex) {
+    return action | (pointerIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+  }
+
+  private static MotionEvent event(long time, int action, float x, float y) {
+    return event(time, action, x, y, 0);
+  }
+
+  /** A single pointer event of the pointer {@code pointerId}. */
+  private static MotionEvent event(long time, int action, float x, float y, int pointerId) {
+    final MotionEvent.PointerProperties[] properties = {new MotionEvent.PointerProperties()};
+    properties[0].id = pointerId;
+    final MotionEvent.PointerCoords[] coords = {new MotionEvent.PointerCoords()};
+    coords[0].x = x;
+    coords[0].y = y;
+    return MotionEvent.obtain(time, time, action, 1, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0);
+  }
+
+  /** A two pointer event of the pointers 0 and 1. */
+  private static MotionEvent event(long time, int action, float x0, float y0, float x1,
+      float y1) {
+    final MotionEvent.PointerProperties[] properties =
+        {new MotionEvent.PointerProperties(), new MotionEvent.PointerProperties()};
+    properties[1].id = 1;
+    final MotionEvent.PointerCoords[] coords =
+        {new MotionEvent.PointerCoords(), new MotionEvent.PointerCoords()};
+    coords[0].x = x0;
+    coords[0].y = y0;
+    coords[1].x = x1;
+    coords[1].y = y1;
+    return MotionEvent.obtain(time, time, action, 2, properties, coords, 0, 0, 1, 1, 0, 0, 0, 0);
+  }
+
+  private void dispatchGestures() {
+    for (MotionEvent event : mEvents) {
+      mIndicator.onTouchEvent(event);
+    }
+  }
+
+  public void testGesturesDriveThePager() {
+    dispatchGestures();
+    assertFalse(mPager.isFakeDragging());
+    // The tap on the middle dot
+    assertEquals(1, mPager.getCurrentItem());
+  }
+
+  public void testGesturesDoNotAllocate() {
+    // Warms up the pools of the pager's fake drag events and velocity tracker
+    dispatchGestures();
+    dispatchGestures();
+    mPager.setCurrentItem(0, false);
+
+    Debug.startAllocCounting();
+    Debug.resetThreadAllocCount();
+    dispatchGestures();
+    final int allocations = Debug.getThreadAllocCount();
+    Debug.stopAllocCounting();
+
+    assertEquals(1, mPager.getCurrentItem());
+    assertEquals(0, allocations);
+  }
+}
@@ -0,0 +1,68 @@
+package com.indicator.viewpager;
+
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+
+/**
+ * Run with {@code ./gradlew :IndicatorViewPager:connectedAndroidTest}, the inflation costs are
+ * logged under the tag IndicatorStyleTest.
+ */
+public class IndicatorStyleTest extends AndroidTestCase {
+  private static final String TAG = "IndicatorStyleTest";
+  private static final int BANNERS = 50;
+
+  private Context mThemed;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    // The test resources are merged into the test package, look the theme up there
+    final int theme = getContext().getResources()
+        .getIdentifier("IndicatorStyleTestTheme", "style", getContext().getPackageName());
+    assertTrue(theme != 0);
+    mThemed = new ContextThemeWrapper(getContext(), theme);
+    IndicatorStyle.clearCache();
+  }
+
+  public void testStyleIsResolvedOncePerTheme() {
+    final IndicatorStyle style = IndicatorStyle.obtain(mThemed, null);
+    assertSame(style, IndicatorStyle.obtain(mThemed, null));
+    assertNotSame(style, IndicatorStyle.obtain(getContext(), null));
+  }
+
+  /** The resolved style applies the theme's vpiCirclePageIndicatorStyle like the attrs path. */
+  public void testIndicatorFromStyleFollowsTheTheme() {
+    final CirclePageIndicator fromAttrs = new CirclePageIndicator(mThemed);
+    final CirclePageIndicator fromStyle =
+        new CirclePageIndicator(mThemed, IndicatorStyle.obtain(mThemed, null));
+    assertFalse(fromStyle.isCentered());
+    assertTrue(fromStyle.isSnap());
+    assertEquals(IndicatorLayout.VERTICAL, fromStyle.getOrientation());
+    assertNotNull(fromStyle.getBackground());
+    assertEquals(fromAttrs.isCentered(), fromStyle.isCentered());
+    assertEquals(fromAttrs.isSnap(), fromStyle.isSnap());
+    assertEquals(fromAttrs.getOrientation(), fromStyle.getOrientation());
+  }
+
+  /**
+   * Average construction time of a banner resolving its style every time, as every banner did
+   * before styles were shared, against one reusing the cached style. The two alternate so that
+   * warm-up and collections weigh on both alike; reusing the style must not be slower.
+   */
+  public void testInflationCost() {
+    // Warms up class loading and the resources
+    new IndicatorViewPager(mThemed);
+
+    long uncached = 0;
+    long cached = 0;
+    for (int i = 0; i < BANNERS; i++) {
+      IndicatorStyle.clearCache();
+      uncached += new IndicatorViewPager(mThemed).getInflateNanos();
+      cached += new IndicatorViewPager(mThemed).getInflateNanos();
+    }
+    Log.i(TAG, "Banner inflation, style resolved each time: " + uncached / BANNERS / 1000
+        + " us, style cached: " + cached / BANNERS / 1000 + " us");
+    assertTrue("cached " + cached + " ns > uncached " + uncached + " ns", cached <= uncached);
+  }
+}
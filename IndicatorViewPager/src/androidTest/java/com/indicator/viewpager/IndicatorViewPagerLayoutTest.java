@@ -0,0 +1,112 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.PagerAdapter;
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Compares the banner's own measure and layout of the pager and indicator with the nested
+ * RelativeLayout it used to inflate. Run with
+ * {@code ./gradlew :IndicatorViewPager:connectedAndroidTest}, the costs are logged under the tag
+ * IndicatorViewPagerLayoutTest.
+ */
+public class IndicatorViewPagerLayoutTest extends AndroidTestCase {
+  private static final String TAG = "IndicatorViewPagerLayoutTest";
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 600;
+  private static final int PASSES = 100;
+  private static final int ROUNDS = 5;
+
+  private static final class PlainAdapter extends PagerAdapter {
+    @Override public int getCount() {
+      return 3;
+    }
+
+    @Override public Object instantiateItem(ViewGroup container, int position) {
+      final View page = new View(container.getContext());
+      container.addView(page);
+      return page;
+    }
+
+    @Override public void destroyItem(ViewGroup container, int position, Object object) {
+      container.removeView((View) object);
+    }
+
+    @Override public boolean isViewFromObject(View view, Object object) {
+      return view == object;
+    }
+  }
+
+  private IndicatorViewPager createFlat() {
+    final IndicatorViewPager banner = new IndicatorViewPager(getContext());
+    banner.setAdapter(new PlainAdapter());
+    return banner;
+  }
+
+  private IndicatorViewPager createNested() {
+    // The test resources are merged into the test package, look the layout up there
+    final int layout = getContext().getResources()
+        .getIdentifier("banner_nested", "layout", getContext().getPackageName());
+    assertTrue(layout != 0);
+    final IndicatorViewPager banner =
+        (IndicatorViewPager) LayoutInflater.from(getContext()).inflate(layout, null);
+    banner.setAdapter(new PlainAdapter());
+    return banner;
+  }
+
+  /** Measures and lays out {@code banner} at the test size, {@code extra} pixels taller. */
+  private static void measureAndLayout(View banner, int extra) {
+    banner.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(HEIGHT + extra, View.MeasureSpec.EXACTLY));
+    banner.layout(0, 0, WIDTH, HEIGHT + extra);
+  }
+
+  private static void assertIndicatorOverPagerBottom(IndicatorViewPager banner) {
+    measureAndLayout(banner, 0);
+    final View pager = banner.getPagerSource().getView();
+    final View indicator = banner.getIndicator();
+    assertEquals(WIDTH, pager.getWidth());
+    assertEquals(HEIGHT, pager.getHeight());
+    assertEquals(WIDTH, indicator.getWidth());
+    assertEquals(HEIGHT, indicator.getBottom());
+    assertTrue(indicator.getHeight() > 0);
+  }
+
+  public void testFlatAndNestedBannersLayOutAlike() {
+    assertIndicatorOverPagerBottom(createFlat());
+    assertIndicatorOverPagerBottom(createNested());
+  }
+
+  /** Time of {@link #PASSES} measure and layout passes, alternating the height to skip none. */
+  private static long passNanos(View banner) {
+    final long start = System.nanoTime();
+    for (int i = 0; i < PASSES; i++) {
+      measureAndLayout(banner, i & 1);
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * The flat banner must not cost more than the nested layout. Rounds of both alternate so that
+   * warm-up and collections weigh on both alike; the first round only warms up.
+   */
+  public void testMeasureAndLayoutCost() {
+    final View nestedBanner = createNested();
+    final View flatBanner = createFlat();
+    passNanos(nestedBanner);
+    passNanos(flatBanner);
+    long nested = 0;
+    long flat = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      nested += passNanos(nestedBanner);
+      flat += passNanos(flatBanner);
+    }
+    final int passes = PASSES * ROUNDS;
+    Log.i(TAG, "Banner measure + layout, nested RelativeLayout: " + nested / passes / 1000
+        + " us, flat: " + flat / passes / 1000 + " us");
+    assertTrue("flat " + flat + " ns > nested " + nested + " ns", flat <= nested);
+  }
+}
@@ -0,0 +1,59 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.test.AndroidTestCase;
+import android.view.View;
+import android.view.ViewGroup;
+
+public class IndicatorViewPagerTest extends AndroidTestCase {
+  private static final int POINTS = 3;
+
+  /** A pager adapter with a very large count, as the deprecated looping overload expects. */
+  private static final class LargeAdapter extends PagerAdapter {
+    @Override public int getCount() {
+      return POINTS * 1000;
+    }
+
+    @Override public Object instantiateItem(ViewGroup container, int position) {
+      final View page = new View(container.getContext());
+      container.addView(page);
+      return page;
+    }
+
+    @Override public void destroyItem(ViewGroup container, int position, Object object) {
+      container.removeView((View) object);
+    }
+
+    @Override public boolean isViewFromObject(View view, Object object) {
+      return view == object;
+    }
+  }
+
+  /** The banner follows the pager's scroll state through the indicator it bound. */
+  private static void assertPageChangesAreObserved(IndicatorViewPager banner) {
+    final CirclePageIndicator indicator = banner.getIndicator();
+    assertEquals(ViewPager.SCROLL_STATE_IDLE, banner.getPagerScrollState());
+    indicator.onPageScrollStateChanged(ViewPager.SCROLL_STATE_DRAGGING);
+    assertEquals(ViewPager.SCROLL_STATE_DRAGGING, banner.getPagerScrollState());
+    indicator.onPageScrollStateChanged(ViewPager.SCROLL_STATE_SETTLING);
+    assertEquals(ViewPager.SCROLL_STATE_SETTLING, banner.getPagerScrollState());
+    indicator.onPageScrollStateChanged(ViewPager.SCROLL_STATE_IDLE);
+    assertEquals(ViewPager.SCROLL_STATE_IDLE, banner.getPagerScrollState());
+  }
+
+  public void testLoopingAdapterIsObserved() {
+    final IndicatorViewPager banner = new IndicatorViewPager(getContext());
+    banner.setAdapter(new LargeAdapter(), 3000);
+    assertPageChangesAreObserved(banner);
+  }
+
+  @SuppressWarnings("deprecation")
+  public void testDeprecatedLoopingAdapterIsObserved() {
+    final IndicatorViewPager banner = new IndicatorViewPager(getContext());
+    banner.setAdapter(new LargeAdapter(), POINTS, 3000);
+    assertSame(banner.getPagerSource(), banner.getIndicator().getPagerSource());
+    assertEquals(0, banner.getCurrentItem() % POINTS);
+    assertPageChangesAreObserved(banner);
+  }
+}
@@ -0,0 +1,176 @@
+package com.indicator.viewpager;
+
+/**
+ * Timing of {@link IndicatorViewPager}'s auto-scroll.
+ *
+ * <ul>
+ * <li>dwell: how long a page stays before advancing</li>
+ * <li>resume delay: how long auto-scroll waits after the user lifts their finger</li>
+ * <li>transition duration: length of the animated page change, -1 for ViewPager's default</li>
+ * </ul>
+ *
+ * <p>In adaptive mode a page the user touched dwells {@link #getEngagedDwellMultiplier()} times
+ * longer (capped at {@link #getMaxDwellMillis()}), and the transition is shortened after one
+ * that dropped frames so it competes less with other work on the main thread; it grows back
+ * toward the configured duration after smooth transitions. Without a configured duration it
+ * starts from {@link #DEFAULT_ADAPTIVE_TRANSITION_DURATION_MILLIS}.
+ */
+public class AutoScrollPolicy {
+
+  public static final int DEFAULT_DWELL_MILLIS = 3000;
+  public static final int DEFAULT_RESUME_DELAY_MILLIS = 2000;
+  public static final int DEFAULT_TRANSITION_DURATION = -1;
+  public static final int DEFAULT_MIN_TRANSITION_DURATION_MILLIS = 150;
+  /**
+   * Base of the adaptive transition when the duration is left at -1, what ViewPager itself takes
+   * for a programmatic change to the next page.
+   */
+  public static final int DEFAULT_ADAPTIVE_TRANSITION_DURATION_MILLIS = 200;
+
+  private int mDwellMillis = DEFAULT_DWELL_MILLIS;
+  private int mResumeDelayMillis = DEFAULT_RESUME_DELAY_MILLIS;
+  private int mTransitionDurationMillis = DEFAULT_TRANSITION_DURATION;
+  private boolean mAdaptive;
+  private float mEngagedDwellMultiplier = 2f;
+  private int mMaxDwellMillis = -1;
+  private int mMinTransitionDurationMillis = DEFAULT_MIN_TRANSITION_DURATION_MILLIS;
+
+  public AutoScrollPolicy() {
+  }
+
+  public AutoScrollPolicy(int dwellMillis) {
+    mDwellMillis = dwellMillis;
+  }
+
+  public int getDwellMillis() {
+    return mDwellMillis;
+  }
+
+  public void setDwellMillis(int dwellMillis) {
+    mDwellMillis = dwellMillis;
+  }
+
+  public int getResumeDelayMillis() {
+    return mResumeDelayMillis;
+  }
+
+  public void setResumeDelayMillis(int resumeDelayMillis) {
+    mResumeDelayMillis = resumeDelayMillis;
+  }
+
+  public int getTransitionDurationMillis() {
+    return mTransitionDurationMillis;
+  }
+
+  /**
+   * @param transitionDurationMillis duration of auto-advance page changes, -1 to keep
+   * ViewPager's own distance based duration
+   */
+  public void setTransitionDurationMillis(int transitionDurationMillis) {
+    mTransitionDurationMillis = transitionDurationMillis;
+  }
+
+  public boolean isAdaptive() {
+    return mAdaptive;
+  }
+
+  public void setAdaptive(boolean adaptive) {
+    mAdaptive = adaptive;
+  }
+
+  public float getEngagedDwellMultiplier() {
+    return mEngagedDwellMultiplier;
+  }
+
+  public void setEngagedDwellMultiplier(float engagedDwellMultiplier) {
+    mEngagedDwellMultiplier = engagedDwellMultiplier;
+  }
+
+  /**
+   * Upper bound for an adaptively lengthened dwell, three times the dwell unless set.
+   */
+  public int getMaxDwellMillis() {
+    return mMaxDwellMillis < 0 ? mDwellMillis * 3 : mMaxDwellMillis;
+  }
+
+  public void setMaxDwellMillis(int maxDwellMillis) {
+    mMaxDwellMillis = maxDwellMillis;
+  }
+
+  public int getMinTransitionDurationMillis() {
+    return mMinTransitionDurationMillis;
+  }
+
+  public void setMinTransitionDurationMillis(int minTransitionDurationMillis) {
+    mMinTransitionDurationMillis = minTransitionDurationMillis;
+  }
+
+  /**
+   * Dwell for the current page.
+   *
+   * @param engaged whether the user touched the banner while the page was showing
+   */
+  int computeDwellMillis(boolean engaged) {
+    if (!mAdaptive || !engaged) {
+      return mDwellMillis;
+    }
+    return Math.min((int) (mDwellMillis * mEngagedDwellMultiplier), getMaxDwellMillis());
+  }
+
+  /**
+   * Deadline of the advance after the one due at {@code deadline} that ran at {@code now}, both
+   * {@code SystemClock.uptimeMillis()} based. Deadlines stay {@code deadline} plus whole dwells,
+   * so a late tick does not push the following ones back; dwells missed during a stall are
+   * skipped rather than caught up, and the page advanced to is shown at least half a dwell.
+   */
+  static long computeNextDeadline(long deadline, long now, int dwellMillis) {
+    if (dwellMillis <= 0) {
+      return now;
+    }
+    long next = deadline + dwellMillis;
+    final long earliest = now + dwellMillis / 2;
+    if (next < earliest) {
+      next += (earliest - next + dwellMillis - 1) / dwellMillis * dwellMillis;
+    }
+    return next;
+  }
+
+  /** How many dwells were skipped between the advance due at {@code deadline} and {@code next}. */
+  static long countSkippedTicks(long deadline, long next, int dwellMillis) {
+    if (dwellMillis <= 0) {
+      return 0;
+    }
+    return Math.max(0, (next - deadline) / dwellMillis - 1);
+  }
+
+  /**
+   * Delay before auto-scroll resumes once the user lifts their finger. In adaptive mode the page
+   * they interacted with also gets the lengthened dwell.
+   */
+  int computeResumeDelayMillis() {
+    if (!mAdaptive) {
+      return mResumeDelayMillis;
+    }
+    return Math.max(mResumeDelayMillis, computeDwellMillis(true));
+  }
+
+  /**
+   * Duration for the next transition given the previous one and how many frames it dropped.
+   *
+   * @param lastDurationMillis duration used for the previous transition, -1 for the default
+   */
+  int computeTransitionDurationMillis(int lastDurationMillis, int droppedFrames) {
+    if (!mAdaptive) {
+      return mTransitionDurationMillis;
+    }
+    final int base = mTransitionDurationMillis >= 0
+        ? mTransitionDurationMillis : DEFAULT_ADAPTIVE_TRANSITION_DURATION_MILLIS;
+    if (lastDurationMillis < 0) {
+      lastDurationMillis = base;
+    }
+    if (droppedFrames > 0) {
+      return Math.max(mMinTransitionDurationMillis, lastDurationMillis / 2);
+    }
+    return Math.min(base, lastDurationMillis + lastDurationMillis / 4 + 1);
+  }
+}
@@ -0,0 +1,44 @@
+package com.indicator.viewpager;
+
+/**
+ * Opt-in cost reporting of an {@link IndicatorViewPager}, see
+ * {@link IndicatorViewPager#setMetrics(BannerMetrics)}. All callbacks arrive on the main thread
+ * from hot paths (drawing, scrolling), implementations must not allocate or block;
+ * {@link HistogramBannerMetrics} only increments counters and is cheap enough for release builds.
+ */
+public interface BannerMetrics {
+
+  /** The indicator was drawn, {@code drawNanos} is the time spent in its onDraw. */
+  void onIndicatorDraw(long drawNanos);
+
+  /**
+   * The pager scrolled or selected a page and the indicator had to update. {@code redundant} is
+   * true if the fill dot did not visibly move and the invalidation was skipped.
+   */
+  void onIndicatorInvalidate(boolean redundant);
+
+  /**
+   * Auto-scroll advanced a page {@code latencyMillis} after its deadline. Negative when a shared
+   * ticker batched it into an earlier frame. Advances missed during a stall are coalesced into
+   * the one reported advance.
+   */
+  void onAutoAdvance(long latencyMillis);
+
+  /**
+   * A page was instantiated by the adapter: added to a ViewPager, or bound to a view holder of a
+   * RecyclerView pager.
+   */
+  void onPageInstantiated();
+
+  /**
+   * A page was destroyed by the adapter: removed from a ViewPager, or its view holder recycled by
+   * a RecyclerView pager.
+   */
+  void onPageDestroyed();
+
+  /**
+   * Reported once when the metrics are set on a banner, {@code inflateNanos} is the time its
+   * constructor spent resolving attributes and creating the pager and indicator.
+   */
+  void onBannerInflated(long inflateNanos);
+}
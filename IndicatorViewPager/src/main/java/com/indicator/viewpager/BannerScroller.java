@@ -0,0 +1,59 @@
+package com.indicator.viewpager;
+
+import android.content.Context;
+import android.support.v4.view.ViewPager;
+import android.util.Log;
+import android.view.animation.Interpolator;
+import android.widget.Scroller;
+import java.lang.reflect.Field;
+
+/**
+ * Scroller swapped into a {@link ViewPager} so that programmatic page changes can use a fixed
+ * duration. The duration only applies while set through {@link #setFixedDuration(int)}; flings
+ * and settles started by the user keep ViewPager's own timing.
+ */
+class BannerScroller extends Scroller {
+
+  private static final String TAG = "BannerScroller";
+
+  /** Same curve as ViewPager's private default interpolator. */
+  static final Interpolator VIEW_PAGER_INTERPOLATOR = new Interpolator() {
+    @Override public float getInterpolation(float t) {
+      t -= 1.0f;
+      return t * t * t * t * t + 1.0f;
+    }
+  };
+
+  private int mFixedDuration = -1;
+
+  BannerScroller(Context context, Interpolator interpolator) {
+    super(context, interpolator);
+  }
+
+  /**
+   * @param duration duration for scrolls started from now on, -1 to use the caller's duration
+   */
+  void setFixedDuration(int duration) {
+    mFixedDuration = duration;
+  }
+
+  @Override public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+    super.startScroll(startX, startY, dx, dy, mFixedDuration >= 0 ? mFixedDuration : duration);
+  }
+
+  /**
+   * Replaces the pager's scroller, returns null if the support library no longer has the field.
+   */
+  static BannerScroller install(ViewPager pager, Interpolator interpolator) {
+    try {
+      final Field field = ViewPager.class.getDeclaredField("mScroller");
+      field.setAccessible(true);
+      final BannerScroller scroller = new BannerScroller(pager.getContext(), interpolator);
+      field.set(pager, scroller);
+      return scroller;
+    } catch (Exception e) {
+      Log.w(TAG, "Could not replace the ViewPager scroller", e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.indicator.viewpager;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import java.util.ArrayList;
+
+/**
+ * Shared main-thread clock for auto-scrolling banners. However many clients are registered, at
+ * most one message is pending: it targets the earliest deadline and, when it fires, every client
+ * due within {@link #BATCH_WINDOW_MILLIS} is ticked from the same frame so their page
+ * transitions start together. Must only be used from the main thread.
+ */
+final class BannerTicker implements Handler.Callback {
+
+  interface Client {
+    /**
+     * Called on the main thread once the client's deadline has been reached. The client is
+     * unscheduled before this call and has to {@link #schedule} itself again to keep ticking.
+     */
+    void onTick(long now);
+  }
+
+  /** Clients due this close to the one that triggered the tick run in the same frame. */
+  static final long BATCH_WINDOW_MILLIS = 100;
+
+  private static final int MSG_TICK = 1;
+
+  private static BannerTicker sInstance;
+
+  private final Handler mHandler = new Handler(Looper.getMainLooper(), this);
+  private final ArrayList<Client> mClients = new ArrayList<>();
+  private long[] mDeadlines = new long[4];
+  private Client[] mDue = new Client[4];
+  private long mScheduledAt = Long.MAX_VALUE;
+  private FrameCallbackCompat mFrameCallback;
+
+  static BannerTicker get() {
+    if (sInstance == null) {
+      sInstance = new BannerTicker();
+    }
+    return sInstance;
+  }
+
+  private BannerTicker() {
+  }
+
+  /**
+   * Schedules {@code client} for {@code deadline} ({@link SystemClock#uptimeMillis()} base),
+   * replacing any deadline it already had.
+   */
+  void schedule(Client client, long deadline) {
+    int index = mClients.indexOf(client);
+    if (index < 0) {
+      index = mClients.size();
+      mClients.add(client);
+      if (mDeadlines.length < mClients.size()) {
+        final long[] deadlines = new long[mDeadlines.length * 2];
+        System.arraycopy(mDeadlines, 0, deadlines, 0, mDeadlines.length);
+        mDeadlines = deadlines;
+        // A client may be scheduled from onTick while dispatch() still reads the due clients
+        final Client[] due = new Client[deadlines.length];
+        System.arraycopy(mDue, 0, due, 0, mDue.length);
+        mDue = due;
+      }
+    }
+    mDeadlines[index] = deadline;
+    reschedule();
+  }
+
+  void cancel(Client client) {
+    final int index = mClients.indexOf(client);
+    if (index < 0) {
+      return;
+    }
+    final int last = mClients.size() - 1;
+    mDeadlines[index] = mDeadlines[last];
+    mClients.set(index, mClients.get(last));
+    mClients.remove(last);
+    reschedule();
+  }
+
+  /** Keeps at most one message pending, for the earliest deadline. */
+  private void reschedule() {
+    long earliest = Long.MAX_VALUE;
+    for (int i = 0, size = mClients.size(); i < size; i++) {
+      earliest = Math.min(earliest, mDeadlines[i]);
+    }
+    if (earliest == mScheduledAt) {
+      return;
+    }
+    mHandler.removeMessages(MSG_TICK);
+    mScheduledAt = earliest;
+    if (earliest != Long.MAX_VALUE) {
+      mHandler.sendEmptyMessageAtTime(MSG_TICK, earliest);
+    }
+  }
+
+  @Override public boolean handleMessage(Message msg) {
+    mScheduledAt = Long.MAX_VALUE;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      // Start the batched transitions at the beginning of the next frame
+      if (mFrameCallback == null) {
+        mFrameCallback = new FrameCallbackCompat(this);
+      }
+      mFrameCallback.post();
+    } else {
+      dispatch();
+    }
+    return true;
+  }
+
+  void dispatch() {
+    final long now = SystemClock.uptimeMillis();
+    final long horizon = now + BATCH_WINDOW_MILLIS;
+    int dueCount = 0;
+    for (int i = mClients.size() - 1; i >= 0; i--) {
+      if (mDeadlines[i] <= horizon) {
+        mDue[dueCount++] = mClients.get(i);
+        final int last = mClients.size() - 1;
+        mDeadlines[i] = mDeadlines[last];
+        mClients.set(i, mClients.get(last));
+        mClients.remove(last);
+      }
+    }
+    for (int i = 0; i < dueCount; i++) {
+      final Client client = mDue[i];
+      mDue[i] = null;
+      client.onTick(now);
+    }
+    reschedule();
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+  private static final class FrameCallbackCompat implements Choreographer.FrameCallback {
+    private final BannerTicker mTicker;
+    private boolean mPosted;
+
+    FrameCallbackCompat(BannerTicker ticker) {
+      mTicker = ticker;
+    }
+
+    void post() {
+      if (!mPosted) {
+        mPosted = true;
+        Choreographer.getInstance().postFrameCallback(this);
+      }
+    }
+
+    @Override public void doFrame(long frameTimeNanos) {
+      mPosted = false;
+      mTicker.dispatch();
+    }
+  }
+}
@@ -19,19 +19,21 @@ package com.indicator.viewpager;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Paint.Style;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.ViewConfigurationCompat;
 import android.support.v4.view.ViewPager;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
 
 import static android.graphics.Paint.ANTI_ALIAS_FLAG;
 import static android.widget.LinearLayout.HORIZONTAL;
@@ -49,35 +51,68 @@ import static android.widget.LinearLayout.VERTICAL;
  * 修改了点的x轴其实位置，加了半个圆之间的间隙(pointmargin/2)，确保完全居中
  *
  * 目前只是处理了  水平方向。垂直放暂未处理(实际场景用的不多)
+ *
+ * The unselected dots are drawn by a child view that is only invalidated when they change, so a
+ * scroll frame in a hardware-accelerated window records just the fill dot and reuses the dots'
+ * display list.
  */
-public class CirclePageIndicator extends View implements PageIndicator {
+public class CirclePageIndicator extends ViewGroup implements PageIndicator {
   private static final int INVALID_POINTER = -1;
 
-  private float mRadius;
   private final Paint mPaintPageFill = new Paint(ANTI_ALIAS_FLAG);
   private final Paint mPaintStroke = new Paint(ANTI_ALIAS_FLAG);
   private final Paint mPaintFill = new Paint(ANTI_ALIAS_FLAG);
-  private ViewPager mViewPager;
+  private PagerSource mPager;
   private ViewPager.OnPageChangeListener mListener;
+  private final PageChangeDispatcher mDispatcher = new PageChangeDispatcher();
   private int mCurrentPage;
   private int mSnapPage;
   private float mPageOffset;
   private int mScrollState;
-  private int mOrientation;
-  private float mPointMargin;
-  private boolean mCentered;
   private boolean mSnap;
 
   private int mTouchSlop;
   private float mLastMotionX = -1;
   private int mActivePointerId = INVALID_POINTER;
   private boolean mIsDragging;
+  /** Tap zones for stepping a page, recomputed on size change. */
+  private float mTapPreviousMaxX;
+  private float mTapNextMinX;
   private int mPointCount = -1;
 
-  private int mPaddingSide = 0;
+  /** Dot positions, windowing and measurement, see {@link IndicatorLayout}. */
+  private final IndicatorLayout mLayout = new IndicatorLayout();
+
+  /** Center of the fill dot as of the last draw, used to bound partial invalidation. */
+  private float mDrawnFillX = Float.NaN;
+  private float mDrawnFillY = Float.NaN;
+  private final Rect mFillDirtyRect = new Rect();
+  private long mSkippedInvalidateCount;
+
+  private BannerMetrics mMetrics;
+
+  /** Set while drawn by {@link IndicatorViewPager} as an overlay instead of being attached. */
+  private View mOverlayHost;
+
+  /** Draws the page fill and stroke circles, see {@link StaticDotsView}. */
+  private final StaticDotsView mStaticDots;
+  /** Number of dots {@link #mStaticDots} draws, as of the last layout of the dots. */
+  private int mStaticDotCount;
+
+  /**
+   * Page fill and stroke circles pre-rendered once, blitted whenever {@link #mStaticDots} draws.
+   * Only used for software drawing, in hardware windows its display list is the cache.
+   */
+  private boolean mStaticLayerEnabled = true;
+  private Bitmap mStaticLayer;
+  /** Draws into {@link #mStaticLayer}, kept across rebuilds. */
+  private final Canvas mStaticLayerCanvas = new Canvas();
+  private boolean mStaticLayerDirty = true;
+  private int mStaticLayerLeft;
+  private int mStaticLayerTop;
 
   public CirclePageIndicator(Context context) {
-    this(context, null);
+    this(context, (AttributeSet) null);
   }
 
   public CirclePageIndicator(Context context, AttributeSet attrs) {
@@ -86,6 +121,7 @@ public class CirclePageIndicator extends View implements PageIndicator {
 
   public CirclePageIndicator(Context context, AttributeSet attrs, int defStyle) {
     super(context, attrs, defStyle);
+    mStaticDots = addStaticDots();
     if (isInEditMode()) return;
 
     // Load defaults from resources
@@ -104,9 +140,9 @@ public class CirclePageIndicator extends View implements PageIndicator {
     TypedArray a =
         context.obtainStyledAttributes(attrs, R.styleable.CirclePageIndicator, defStyle, 0);
 
-    mCentered = a.getBoolean(R.styleable.CirclePageIndicator_centered, defaultCentered);
-    mOrientation =
-        a.getInt(R.styleable.CirclePageIndicator_android_orientation, defaultOrientation);
+    mLayout.setCentered(a.getBoolean(R.styleable.CirclePageIndicator_centered, defaultCentered));
+    mLayout.setOrientation(
+        a.getInt(R.styleable.CirclePageIndicator_android_orientation, defaultOrientation));
     mPaintPageFill.setStyle(Style.FILL);
     mPaintPageFill.setColor(
         a.getColor(R.styleable.CirclePageIndicator_pageColor, defaultPageColor));
@@ -115,11 +151,13 @@ public class CirclePageIndicator extends View implements PageIndicator {
         a.getColor(R.styleable.CirclePageIndicator_strokeColor, defaultStrokeColor));
     mPaintStroke.setStrokeWidth(
         a.getDimension(R.styleable.CirclePageIndicator_strokeWidth, defaultStrokeWidth));
+    mLayout.setStrokeWidth(mPaintStroke.getStrokeWidth());
     mPaintFill.setStyle(Style.FILL);
     mPaintFill.setColor(a.getColor(R.styleable.CirclePageIndicator_fillColor, defaultFillColor));
-    mRadius = a.getDimension(R.styleable.CirclePageIndicator_radius, defaultRadius);
+    mLayout.setRadius(a.getDimension(R.styleable.CirclePageIndicator_radius, defaultRadius));
     mSnap = a.getBoolean(R.styleable.CirclePageIndicator_snap, defaultSnap);
-    mPointMargin = a.getDimension(R.styleable.CirclePageIndicator_pointMargin, pointMargin);
+    mLayout.setPointMargin(
+        a.getDimension(R.styleable.CirclePageIndicator_pointMargin, pointMargin));
 
     Drawable background = a.getDrawable(R.styleable.CirclePageIndicator_android_background);
     if (background != null) {
@@ -132,17 +170,77 @@ public class CirclePageIndicator extends View implements PageIndicator {
     mTouchSlop = ViewConfigurationCompat.getScaledPagingTouchSlop(configuration);
   }
 
+  /**
+   * Created by {@link IndicatorViewPager} with an already resolved style, skips resolving the
+   * CirclePageIndicator attributes and their defaults a second time. The theme's
+   * vpiCirclePageIndicatorStyle still applies, the style resolved it, see {@link IndicatorStyle}.
+   */
+  CirclePageIndicator(Context context, IndicatorStyle style) {
+    super(context);
+    mStaticDots = addStaticDots();
+    mPaintPageFill.setStyle(Style.FILL);
+    mPaintStroke.setStyle(Style.STROKE);
+    mPaintFill.setStyle(Style.FILL);
+    mLayout.setCentered(style.mCentered);
+    mLayout.setOrientation(style.mOrientation);
+    mSnap = style.mSnap;
+    if (style.mBackground != null) {
+      setBackgroundDrawable(style.mBackground.newDrawable(context.getResources()));
+    }
+    setStyleFields(style);
+
+    final ViewConfiguration configuration = ViewConfiguration.get(context);
+    mTouchSlop = ViewConfigurationCompat.getScaledPagingTouchSlop(configuration);
+  }
+
+  /**
+   * Applies colors, sizes, paddings and the visible dot count of {@code style} at once, with one
+   * relayout and one invalidate instead of one per setter.
+   */
+  public void applyStyle(IndicatorStyle style) {
+    setStyleFields(style);
+    requestLayout();
+    invalidate();
+  }
+
+  private void setStyleFields(IndicatorStyle style) {
+    mPaintFill.setColor(style.getFillColor());
+    mPaintPageFill.setColor(style.getPageColor());
+    mPaintStroke.setColor(style.getStrokeColor());
+    mPaintStroke.setStrokeWidth(style.getStrokeWidth());
+    mLayout.setStrokeWidth(style.getStrokeWidth());
+    mLayout.setPointMargin(style.getPointMargin());
+    mLayout.setRadius(style.getRadius());
+    mLayout.setVisibleDotCount(style.getVisibleDotCount());
+    final int paddingSide = (int) style.getPaddingSide();
+    switch (style.getGravity()) {
+      case IndicatorStyle.GRAVITY_LEFT:
+        mLayout.setPaddingSide(-paddingSide);
+        break;
+      case IndicatorStyle.GRAVITY_RIGHT:
+        mLayout.setPaddingSide(paddingSide);
+        break;
+      default:
+        mLayout.setPaddingSide(0);
+        break;
+    }
+    invalidateStaticDots();
+    // Only requests a layout if the padding changed
+    setPadding(0, (int) style.getRadius(), 0, (int) style.getPaddingBottom());
+  }
+
   public void setCentered(boolean centered) {
-    mCentered = centered;
+    mLayout.setCentered(centered);
     invalidate();
   }
 
   public boolean isCentered() {
-    return mCentered;
+    return mLayout.isCentered();
   }
 
   public void setPageColor(int pageColor) {
     mPaintPageFill.setColor(pageColor);
+    invalidateStaticDots();
     invalidate();
   }
 
@@ -163,7 +261,7 @@ public class CirclePageIndicator extends View implements PageIndicator {
     switch (orientation) {
       case HORIZONTAL:
       case VERTICAL:
-        mOrientation = orientation;
+        mLayout.setOrientation(orientation);
         requestLayout();
         break;
 
@@ -173,11 +271,12 @@ public class CirclePageIndicator extends View implements PageIndicator {
   }
 
   public int getOrientation() {
-    return mOrientation;
+    return mLayout.getOrientation();
   }
 
   public void setStrokeColor(int strokeColor) {
     mPaintStroke.setColor(strokeColor);
+    invalidateStaticDots();
     invalidate();
   }
 
@@ -186,16 +285,17 @@ public class CirclePageIndicator extends View implements PageIndicator {
   }
 
   public float getmPointMargin() {
-    return mPointMargin;
+    return mLayout.getPointMargin();
   }
 
   public void setPointMargin(float mPointMargin) {
-    this.mPointMargin = mPointMargin;
+    mLayout.setPointMargin(mPointMargin);
     invalidate();
   }
 
   public void setStrokeWidth(float strokeWidth) {
     mPaintStroke.setStrokeWidth(strokeWidth);
+    mLayout.setStrokeWidth(strokeWidth);
     invalidate();
   }
 
@@ -204,12 +304,12 @@ public class CirclePageIndicator extends View implements PageIndicator {
   }
 
   public void setRadius(float radius) {
-    mRadius = radius;
+    mLayout.setRadius(radius);
     invalidate();
   }
 
   public float getRadius() {
-    return mRadius;
+    return mLayout.getRadius();
   }
 
   public void setSnap(boolean snap) {
@@ -222,273 +322,528 @@ public class CirclePageIndicator extends View implements PageIndicator {
   }
 
   public int getPaddingSide() {
-    return mPaddingSide;
+    return mLayout.getPaddingSide();
   }
 
   public void setPaddingSide(int paddingSide) {
-    mPaddingSide = paddingSide;
+    mLayout.setPaddingSide(paddingSide);
+    invalidate();
   }
 
-  @Override protected void onDraw(Canvas canvas) {
-    super.onDraw(canvas);
+  /** Hands the current size and paddings to {@link #mLayout}, which only goes stale on change. */
+  private void syncLayoutBounds() {
+    mLayout.setBounds(getWidth(), getHeight(), getPaddingLeft(), getPaddingTop(),
+        getPaddingRight(), getPaddingBottom());
+  }
 
-    if (mViewPager == null) {
-      return;
-    }
-    final int count;
+  @Override protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    super.onSizeChanged(w, h, oldw, oldh);
+    syncLayoutBounds();
+    final float halfWidth = w / 2f;
+    final float sixthWidth = w / 6f;
+    mTapPreviousMaxX = halfWidth - sixthWidth;
+    mTapNextMinX = halfWidth + sixthWidth;
+  }
 
-    if (mPointCount != -1) {
-      count = mPointCount;
-    } else {
-      count = mViewPager.getAdapter().getCount();
+  /**
+   * The unselected dots, drawn below the fill dot in this view's coordinates. Invalidated only
+   * when the dots change, through {@link #invalidateStaticDots()}: the fill dot moving
+   * invalidates the indicator alone, and a hardware window keeps replaying this view's recorded
+   * display list instead of recording every circle again on each scroll frame.
+   */
+  private final class StaticDotsView extends View {
+    StaticDotsView(Context context) {
+      super(context);
     }
 
-    if (count == 0) {
-      return;
-    }
-    if (mPointCount != -1) {
-      if (mCurrentPage % mPointCount >= count) {
-        setCurrentItem(count - 1);
+    @Override protected void onDraw(Canvas canvas) {
+      final int count = mStaticDotCount;
+      if (count == 0) {
         return;
       }
-    } else {
-      if (mCurrentPage >= count) {
-        setCurrentItem(count - 1);
-        return;
+      if (mStaticLayerEnabled && !canvas.isHardwareAccelerated()) {
+        if (mStaticLayerDirty || mStaticLayer == null) {
+          buildStaticLayer(count);
+        }
+        if (mStaticLayer != null) {
+          canvas.drawBitmap(mStaticLayer, mStaticLayerLeft, mStaticLayerTop, null);
+        }
+      } else {
+        drawStaticDots(canvas, count);
       }
     }
+  }
 
-    int longSize;
-    int longPaddingBefore;
-    int longPaddingAfter;
-    int shortPaddingBefore;
-    if (mOrientation == HORIZONTAL) {
-      longSize = getWidth();
-      longPaddingBefore = getPaddingLeft();
-      longPaddingAfter = getPaddingRight();
-      shortPaddingBefore = getPaddingTop();
-    } else {
-      longSize = getHeight();
-      longPaddingBefore = getPaddingTop();
-      longPaddingAfter = getPaddingBottom();
-      shortPaddingBefore = getPaddingLeft();
-    }
+  private StaticDotsView addStaticDots() {
+    final StaticDotsView dots = new StaticDotsView(getContext());
+    // The stroke reaches half its width past the radius, into the padding
+    setClipToPadding(false);
+    addView(dots);
+    return dots;
+  }
 
-    final float threeRadius;
+  /** The unselected dots changed, renders them again on the next draw. */
+  private void invalidateStaticDots() {
+    mStaticLayerDirty = true;
+    mStaticDots.invalidate();
+  }
 
-    if (mPointMargin < mRadius) {
-      threeRadius = mRadius * 3;
-    } else {
-      threeRadius = mRadius * 2 + mPointMargin;
+  /**
+   * Whether the unselected dots are rendered once into a cached bitmap when drawn in software.
+   * Defaults to true; turn it off to trade the bitmap memory for drawing every circle whenever the
+   * dots are redrawn. Hardware-accelerated windows draw the circles into the dots' display list,
+   * which is recorded again only when the dots change either way.
+   */
+  public void setStaticLayerEnabled(boolean enabled) {
+    if (mStaticLayerEnabled == enabled) {
+      return;
     }
+    mStaticLayerEnabled = enabled;
+    if (!enabled) {
+      releaseStaticLayer();
+    }
+    invalidateStaticDots();
+    invalidate();
+  }
 
-    final float shortOffset = shortPaddingBefore + mRadius;
-    float longOffset = longPaddingBefore + mRadius;
-    if (mCentered) {
-      longOffset +=
-          ((longSize - longPaddingBefore - longPaddingAfter) / 2.0f) - ((count * threeRadius)
-              / 2.0f);
+  public boolean isStaticLayerEnabled() {
+    return mStaticLayerEnabled;
+  }
+
+  /**
+   * Renders the page fill and stroke circles into {@link #mStaticLayer}, sized to the bounds of
+   * the dots clipped to this view.
+   */
+  private void buildStaticLayer(int count) {
+    final float[] centers = mLayout.getDotCenters();
+    final float extent = mLayout.getRadius() + mPaintStroke.getStrokeWidth() / 2.0f + 1;
+    final int last = (count - 1) * 2;
+    final int left = Math.max(0, (int) Math.floor(centers[0] - extent));
+    final int top = Math.max(0, (int) Math.floor(centers[1] - extent));
+    final int right = Math.min(getWidth(), (int) Math.ceil(centers[last] + extent));
+    final int bottom = Math.min(getHeight(), (int) Math.ceil(centers[last + 1] + extent));
+    final int width = right - left;
+    final int height = bottom - top;
+    if (width <= 0 || height <= 0) {
+      releaseStaticLayer();
+      return;
     }
 
-    float dX;
-    float dY;
+    if (mStaticLayer == null
+        || mStaticLayer.getWidth() != width
+        || mStaticLayer.getHeight() != height) {
+      releaseStaticLayer();
+      mStaticLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    } else {
+      mStaticLayer.eraseColor(0);
+    }
+    final Canvas canvas = mStaticLayerCanvas;
+    canvas.setBitmap(mStaticLayer);
+    canvas.save();
+    canvas.translate(-left, -top);
+    drawStaticDots(canvas, count);
+    canvas.restore();
+    mStaticLayerLeft = left;
+    mStaticLayerTop = top;
+    mStaticLayerDirty = false;
+  }
 
-    float pageFillRadius = mRadius;
-    if (mPaintStroke.getStrokeWidth() > 0) {
-      pageFillRadius -= mPaintStroke.getStrokeWidth() / 2.0f;
+  private void releaseStaticLayer() {
+    if (mStaticLayer != null) {
+      mStaticLayerCanvas.setBitmap(null);
+      mStaticLayer.recycle();
+      mStaticLayer = null;
     }
+    mStaticLayerDirty = true;
+  }
+
+  private void drawStaticDots(Canvas canvas, int count) {
+    final float[] centers = mLayout.getDotCenters();
+    final float pageFillRadius = mLayout.getPageFillRadius();
+    final float radius = mLayout.getRadius();
 
     // Draw stroked circles
     for (int iLoop = 0; iLoop < count; iLoop++) {
-      float drawLong = longOffset + (iLoop * threeRadius);
-      if (mOrientation == HORIZONTAL) {
-        if (mPaddingSide == 0) {
-          dX = drawLong + ((threeRadius - mRadius * 2) / 2);
-        } else if (mPaddingSide < 0) {
-          dX = drawLong + ((threeRadius - mRadius * 2) / 2) - (longOffset + mPaddingSide);
-        } else {
-          dX = drawLong + ((threeRadius - mRadius * 2) / 2) + (longOffset - mPaddingSide);
-        }
-        dY = shortOffset;
-      } else {
-        dX = shortOffset;
-        dY = drawLong;
-      }
+      final float dX = centers[iLoop * 2];
+      final float dY = centers[iLoop * 2 + 1];
+      final float scale = mLayout.getDotScale(iLoop);
       // Only paint fill if not completely transparent
       if (mPaintPageFill.getAlpha() > 0) {
-        canvas.drawCircle(dX, dY, pageFillRadius, mPaintPageFill);
+        canvas.drawCircle(dX, dY, pageFillRadius * scale, mPaintPageFill);
       }
 
       // Only paint stroke if a stroke width was non-zero
-      if (pageFillRadius != mRadius) {
-        canvas.drawCircle(dX, dY, mRadius, mPaintStroke);
+      if (pageFillRadius != radius) {
+        canvas.drawCircle(dX, dY, radius * scale, mPaintStroke);
       }
     }
+  }
+
+  /**
+   * Limits the indicator to {@code visibleDotCount} dots that scroll along with the current page,
+   * for adapters with more pages than fit. Dots at an edge of the window that has more pages
+   * beyond it are drawn smaller. Draw cost and measured size then no longer grow with the page
+   * count. Pass -1 to draw one dot per page.
+   */
+  public void setVisibleDotCount(int visibleDotCount) {
+    mLayout.setVisibleDotCount(visibleDotCount);
+    requestLayout();
+    invalidate();
+  }
+
+  public int getVisibleDotCount() {
+    return mLayout.getVisibleDotCount();
+  }
+
+  @Override protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    releaseStaticLayer();
+  }
+
+  /**
+   * Makes this indicator a decoration drawn by {@code host} instead of an attached view: the host
+   * measures, lays out and draws it, invalidations go to the host. Null attaches it normally.
+   */
+  void setOverlayHost(View host) {
+    mOverlayHost = host;
+  }
+
+  /** The overlay host was detached, drop what onDetachedFromWindow would have. */
+  void releaseOverlay() {
+    releaseStaticLayer();
+  }
+
+  @Override public void invalidate() {
+    if (mOverlayHost != null) {
+      mOverlayHost.invalidate(getLeft(), getTop(), getRight(), getBottom());
+      return;
+    }
+    super.invalidate();
+  }
+
+  @Override public void invalidate(Rect dirty) {
+    if (mOverlayHost != null) {
+      mOverlayHost.invalidate(getLeft() + dirty.left, getTop() + dirty.top,
+          getLeft() + dirty.right, getTop() + dirty.bottom);
+      return;
+    }
+    super.invalidate(dirty);
+  }
+
+  @Override public void requestLayout() {
+    super.requestLayout();
+    if (mOverlayHost != null) {
+      mOverlayHost.requestLayout();
+    }
+  }
+
+  /**
+   * Reports draw times and scroll invalidations to {@code metrics}, null turns it off.
+   */
+  public void setMetrics(BannerMetrics metrics) {
+    mMetrics = metrics;
+  }
+
+  /** Draws {@link #mStaticDots}, then the fill dot over them. */
+  @Override protected void dispatchDraw(Canvas canvas) {
+    if (mMetrics == null) {
+      drawIndicator(canvas);
+      return;
+    }
+    final long start = System.nanoTime();
+    drawIndicator(canvas);
+    mMetrics.onIndicatorDraw(System.nanoTime() - start);
+  }
+
+  private void drawIndicator(Canvas canvas) {
+    if (mPager == null) {
+      return;
+    }
+    final int total = getDotCount();
+
+    if (total == 0) {
+      return;
+    }
+    if (toPointPosition(mCurrentPage) >= total) {
+      setCurrentItem(total - 1);
+      return;
+    }
+
+    final int count = mLayout.getDrawnDotCount(total);
+    syncLayoutBounds();
+    // Layout changes of the dots reach the static dots before they are drawn below
+    if (mLayout.layout(count) || count != mStaticDotCount) {
+      mStaticDotCount = count;
+      invalidateStaticDots();
+    }
+    final int point = toPointPosition(mSnap ? mSnapPage : mCurrentPage);
+    if (mLayout.updateWindow(point, total)) {
+      invalidateStaticDots();
+    }
+    super.dispatchDraw(canvas);
 
     // Draw the filled circle according to the current scroll
-    float cx;
+    final float offset = mSnap ? 0 : mPageOffset;
+    mDrawnFillX = mLayout.getFillX(point, offset);
+    mDrawnFillY = mLayout.getFillY(point, offset);
+    canvas.drawCircle(mDrawnFillX, mDrawnFillY, mLayout.getRadius(), mPaintFill);
+  }
 
-    if (mPointCount != -1) {
-      cx = (mSnap ? mSnapPage : mCurrentPage % mPointCount) * threeRadius;
-    } else {
-      cx = (mSnap ? mSnapPage : mCurrentPage) * threeRadius;
+  private int getDotCount() {
+    if (mPointCount != -1 && !mPager.isLooping()) {
+      return mPointCount;
     }
+    return mPager.getRealCount();
+  }
 
-    if (!mSnap) {
-      cx += mPageOffset * threeRadius;
+  /**
+   * Maps a pager position to the index of the dot it lights up.
+   */
+  private int toPointPosition(int position) {
+    if (mPointCount != -1 && !mPager.isLooping()) {
+      return position % mPointCount;
     }
-    if (mOrientation == HORIZONTAL) {
+    return mPager.toRealPosition(position);
+  }
 
-      if (mPaddingSide == 0) {
-        dX = longOffset + cx + ((threeRadius - mRadius * 2) / 2);
-      } else if (mPaddingSide < 0) {
-        dX = longOffset + cx + ((threeRadius - mRadius * 2) / 2) - (longOffset + mPaddingSide);
-      } else {
-        dX = longOffset + cx + ((threeRadius - mRadius * 2) / 2) + (longOffset - mPaddingSide);
-      }
+  /**
+   * Whether the last dot wraps around to the first one, i.e. the pager loops.
+   */
+  private boolean isWrapping() {
+    return mPager.isLooping() || mPointCount != -1;
+  }
 
-      dY = shortOffset;
-    } else {
-      dX = shortOffset;
-      dY = longOffset + cx;
+  /**
+   * Number of scroll updates that did not invalidate because the fill dot would be drawn at the
+   * same pixel position, e.g. while snapping or for sub-pixel offsets.
+   */
+  public long getSkippedInvalidateCount() {
+    return mSkippedInvalidateCount;
+  }
+
+  public void resetSkippedInvalidateCount() {
+    mSkippedInvalidateCount = 0;
+  }
+
+  private void invalidateFill() {
+    final boolean invalidated = invalidateFillBounds();
+    if (mMetrics != null) {
+      mMetrics.onIndicatorInvalidate(!invalidated);
+    }
+  }
+
+  /**
+   * Invalidates the union of the fill dot's last drawn bounds and its new bounds, or nothing if
+   * the dot has not visibly moved. Falls back to a full invalidate while the cached geometry is
+   * stale or nothing has been drawn yet.
+   *
+   * <p>The dirty rect only limits redrawing in software-drawn windows. With hardware acceleration
+   * the rect is coarsened to the whole view (ignored from API 21 on) and the indicator records its
+   * drawing again, which is only the fill dot over the unchanged display list of
+   * {@link #mStaticDots}; skipping the invalidations where the dot did not move saves the rest.
+   *
+   * @return false if the invalidation was skipped
+   */
+  private boolean invalidateFillBounds() {
+    if (mPager == null || Float.isNaN(mDrawnFillX)) {
+      invalidate();
+      return true;
+    }
+    final int point = toPointPosition(mSnap ? mSnapPage : mCurrentPage);
+    if (mLayout.needsRelayout(point, getDotCount())) {
+      // Stale geometry or the dot window moves, every dot is redrawn
+      invalidate();
+      return true;
+    }
+    final float offset = mSnap ? 0 : mPageOffset;
+    final float x = mLayout.getFillX(point, offset);
+    final float y = mLayout.getFillY(point, offset);
+    // Nothing visible changes until the dot travels a full pixel, except when settling exactly
+    if ((x == mDrawnFillX && y == mDrawnFillY) || (mPageOffset != 0
+        && Math.abs(x - mDrawnFillX) < 1
+        && Math.abs(y - mDrawnFillY) < 1)) {
+      mSkippedInvalidateCount++;
+      return false;
     }
-    canvas.drawCircle(dX, dY, mRadius, mPaintFill);
+    // One extra pixel on each side for anti-aliasing
+    final float extent = mLayout.getRadius() + mPaintStroke.getStrokeWidth() + 1;
+    mFillDirtyRect.set((int) Math.floor(Math.min(x, mDrawnFillX) - extent),
+        (int) Math.floor(Math.min(y, mDrawnFillY) - extent),
+        (int) Math.ceil(Math.max(x, mDrawnFillX) + extent),
+        (int) Math.ceil(Math.max(y, mDrawnFillY) + extent));
+    invalidate(mFillDirtyRect);
+    return true;
   }
 
-  public boolean onTouchEvent(MotionEvent ev) {
+  /**
+   * Taps on a dot jump to its page; elsewhere, taps left of {@link #mTapPreviousMaxX} or right of
+   * {@link #mTapNextMinX} step one page, drags fake-drag the pager. Allocates nothing.
+   */
+  @Override public boolean onTouchEvent(MotionEvent ev) {
     if (super.onTouchEvent(ev)) {
       return true;
     }
-    if ((mViewPager == null) || (mViewPager.getAdapter().getCount() == 0)) {
+    if (mPager == null) {
       return false;
     }
 
-    final int action = ev.getAction() & MotionEventCompat.ACTION_MASK;
+    final int action = ev.getActionMasked();
     switch (action) {
       case MotionEvent.ACTION_DOWN:
-        mActivePointerId = MotionEventCompat.getPointerId(ev, 0);
+        if (mPager.getCount() == 0) {
+          return false;
+        }
+        mActivePointerId = ev.getPointerId(0);
         mLastMotionX = ev.getX();
+        mIsDragging = false;
         break;
 
       case MotionEvent.ACTION_MOVE: {
-        final int activePointerIndex = MotionEventCompat.findPointerIndex(ev, mActivePointerId);
-        final float x = MotionEventCompat.getX(ev, activePointerIndex);
+        final int activePointerIndex = ev.findPointerIndex(mActivePointerId);
+        if (activePointerIndex < 0) {
+          break;
+        }
+        final float x = ev.getX(activePointerIndex);
         final float deltaX = x - mLastMotionX;
 
-        if (!mIsDragging) {
-          if (Math.abs(deltaX) > mTouchSlop) {
-            mIsDragging = true;
-          }
+        if (!mIsDragging && Math.abs(deltaX) > mTouchSlop) {
+          mIsDragging = true;
         }
 
         if (mIsDragging) {
           mLastMotionX = x;
-          if (mViewPager.isFakeDragging() || mViewPager.beginFakeDrag()) {
-            mViewPager.fakeDragBy(deltaX);
+          if (mPager.isFakeDragging() || mPager.beginFakeDrag()) {
+            mPager.fakeDragBy(deltaX);
           }
         }
-
         break;
       }
 
       case MotionEvent.ACTION_CANCEL:
       case MotionEvent.ACTION_UP:
-        if (!mIsDragging) {
-          final int count;
-
-          if (mPointCount != -1) {
-            count = mPointCount;
-          } else {
-            count = mViewPager.getAdapter().getCount();
-          }
-
-          final int width = getWidth();
-          final float halfWidth = width / 2f;
-          final float sixthWidth = width / 6f;
-
-          if ((mCurrentPage > 0) && (ev.getX() < halfWidth - sixthWidth)) {
-            if (action != MotionEvent.ACTION_CANCEL) {
-              mViewPager.setCurrentItem(mCurrentPage - 1);
-            }
-            return true;
-          } else {
-            if (mPointCount != -1) {
-              if ((mCurrentPage % mPointCount < count - 1) && (ev.getX()
-                  > halfWidth + sixthWidth)) {
-                if (action != MotionEvent.ACTION_CANCEL) {
-                  mViewPager.setCurrentItem(mCurrentPage + 1);
-                }
-                return true;
-              }
-            } else {
-              if ((mCurrentPage < count - 1) && (ev.getX() > halfWidth + sixthWidth)) {
-                if (action != MotionEvent.ACTION_CANCEL) {
-                  mViewPager.setCurrentItem(mCurrentPage + 1);
-                }
-                return true;
-              }
-            }
-          }
+        if (!mIsDragging && action == MotionEvent.ACTION_UP) {
+          onTap(ev.getX(), ev.getY());
         }
-
         mIsDragging = false;
         mActivePointerId = INVALID_POINTER;
-        if (mViewPager.isFakeDragging()) mViewPager.endFakeDrag();
+        if (mPager.isFakeDragging()) mPager.endFakeDrag();
         break;
 
-      case MotionEventCompat.ACTION_POINTER_DOWN: {
-        final int index = MotionEventCompat.getActionIndex(ev);
-        mLastMotionX = MotionEventCompat.getX(ev, index);
-        mActivePointerId = MotionEventCompat.getPointerId(ev, index);
+      case MotionEvent.ACTION_POINTER_DOWN: {
+        final int index = ev.getActionIndex();
+        mLastMotionX = ev.getX(index);
+        mActivePointerId = ev.getPointerId(index);
         break;
       }
 
-      case MotionEventCompat.ACTION_POINTER_UP:
-        final int pointerIndex = MotionEventCompat.getActionIndex(ev);
-        final int pointerId = MotionEventCompat.getPointerId(ev, pointerIndex);
-        if (pointerId == mActivePointerId) {
+      case MotionEvent.ACTION_POINTER_UP: {
+        final int pointerIndex = ev.getActionIndex();
+        if (ev.getPointerId(pointerIndex) == mActivePointerId) {
+          // The active pointer went up, continue with another one
           final int newPointerIndex = pointerIndex == 0 ? 1 : 0;
-          mActivePointerId = MotionEventCompat.getPointerId(ev, newPointerIndex);
+          mActivePointerId = ev.getPointerId(newPointerIndex);
+          mLastMotionX = ev.getX(newPointerIndex);
         }
-        mLastMotionX =
-            MotionEventCompat.getX(ev, MotionEventCompat.findPointerIndex(ev, mActivePointerId));
+        break;
+      }
+
+      default:
         break;
     }
 
     return true;
   }
 
+  private void onTap(float x, float y) {
+    if (!mLayout.isDirty()) {
+      final int dot = mLayout.hitTest(x, y, mTouchSlop);
+      if (dot >= 0) {
+        mPager.setCurrentItem(toPagerPosition(mLayout.getWindowStart() + dot), true);
+        return;
+      }
+    }
+
+    if ((mCurrentPage > 0) && (x < mTapPreviousMaxX)) {
+      mPager.setCurrentItem(mCurrentPage - 1, true);
+    } else if (x > mTapNextMinX) {
+      final int last = getDotCount() - 1;
+      if (isWrapping() ? toPointPosition(mCurrentPage) < last : mCurrentPage < last) {
+        mPager.setCurrentItem(mCurrentPage + 1, true);
+      }
+    }
+  }
+
+  /**
+   * Maps the index of a dot back to a pager position, the inverse of {@link #toPointPosition}.
+   */
+  private int toPagerPosition(int point) {
+    if (mPointCount != -1 && !mPager.isLooping()) {
+      return IndicatorLayout.toCyclePage(point, mCurrentPage, mPointCount);
+    }
+    return mPager.toLoopPosition(point);
+  }
+
   @Override public void setViewPager(ViewPager view) {
-    if (mViewPager == view) {
+    if (mPager instanceof ViewPagerSource && ((ViewPagerSource) mPager).getViewPager() == view) {
+      return;
+    }
+    setPagerSource(new ViewPagerSource(view));
+  }
+
+  @Override public void setPagerSource(PagerSource source) {
+    if (mPager == source) {
       return;
     }
-    if (mViewPager != null) {
-      mViewPager.setOnPageChangeListener(null);
+    if (!source.hasAdapter()) {
+      throw new IllegalStateException("Pager does not have adapter instance.");
     }
-    if (view.getAdapter() == null) {
-      throw new IllegalStateException("ViewPager does not have adapter instance.");
+    if (mPager != null) {
+      mPager.setOnPageChangeListener(null);
     }
-    mViewPager = view;
-    mViewPager.setOnPageChangeListener(this);
+    mPager = source;
+    mPager.setOnPageChangeListener(this);
     invalidate();
   }
 
+  public PagerSource getPagerSource() {
+    return mPager;
+  }
+
   @Override public void setViewPager(ViewPager view, int initialPosition) {
     setViewPager(view);
     setCurrentItem(initialPosition);
   }
 
   @Override public void setCurrentItem(int item) {
-    if (mViewPager == null) {
+    if (mPager == null) {
       throw new IllegalStateException("ViewPager has not been bound.");
     }
-    mViewPager.setCurrentItem(item);
+    mPager.setCurrentItem(item, true);
     mCurrentPage = item;
     invalidate();
   }
 
+  /**
+   * Picks up the page the pager moved to and relayouts only if the number of dots changed;
+   * otherwise only the fill dot is invalidated, the cached dot layout is kept.
+   */
   @Override public void notifyDataSetChanged() {
-    invalidate();
+    if (mPager == null) {
+      invalidate();
+      return;
+    }
+    if (mScrollState == ViewPager.SCROLL_STATE_IDLE) {
+      mCurrentPage = mPager.getCurrentItem();
+      mSnapPage = mCurrentPage;
+      mPageOffset = 0;
+    }
+    if (mLayout.getDrawnDotCount(getDotCount()) != mLayout.getCount()) {
+      // The wrap_content size depends on the number of dots
+      requestLayout();
+      invalidate();
+      return;
+    }
+    invalidateFill();
   }
 
   @Override public void onPageScrollStateChanged(int state) {
@@ -497,59 +852,73 @@ public class CirclePageIndicator extends View implements PageIndicator {
     if (mListener != null) {
       mListener.onPageScrollStateChanged(state);
     }
+    mDispatcher.onPageScrollStateChanged(state);
   }
 
   @Override
   public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
-    mCurrentPage = position;
-    mPageOffset = positionOffset;
-
-    if (mPointCount != -1) {
-      if (position % mPointCount == mPointCount - 1) {
-        if (positionOffset < 0.5) {
-          mCurrentPage = position;
-          mPageOffset = positionOffset;
-        } else {
-          mCurrentPage = position + 1;
-          mPageOffset = positionOffset - 1;
-        }
-      }
-    }
+    final boolean wrapsFromLastDot =
+        isWrapping() && toPointPosition(position) == getDotCount() - 1;
+    mCurrentPage = IndicatorLayout.mapScrollPage(position, positionOffset, wrapsFromLastDot);
+    mPageOffset = positionOffset - (mCurrentPage - position);
 
-    invalidate();
+    invalidateFill();
 
     if (mListener != null) {
       mListener.onPageScrolled(position, positionOffset, positionOffsetPixels);
     }
+    mDispatcher.onPageScrolled(position, positionOffset, positionOffsetPixels);
   }
 
   @Override public void onPageSelected(int position) {
     if (mSnap || mScrollState == ViewPager.SCROLL_STATE_IDLE) {
       mCurrentPage = position;
       mSnapPage = position;
-      invalidate();
+      invalidateFill();
     }
 
     if (mListener != null) {
       mListener.onPageSelected(position);
     }
+    mDispatcher.onPageSelected(position);
   }
 
   @Override public void setOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
     mListener = listener;
   }
 
+  /** Adds a listener that receives every event, see the overload. */
+  public void addOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
+    addOnPageChangeListener(listener, EVENT_ALL, 1);
+  }
+
+  @Override public void addOnPageChangeListener(ViewPager.OnPageChangeListener listener,
+      int events, int scrollSampleFrames) {
+    mDispatcher.add(listener, events, scrollSampleFrames);
+  }
+
+  @Override public void removeOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
+    mDispatcher.remove(listener);
+  }
+
   /*
    * (non-Javadoc)
    *
    * @see android.com.xmchoice.yyxsjcontrol.view.View#onMeasure(int, int)
    */
   @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-    if (mOrientation == HORIZONTAL) {
+    syncLayoutBounds();
+    if (mLayout.getOrientation() == HORIZONTAL) {
       setMeasuredDimension(measureLong(widthMeasureSpec), measureShort(heightMeasureSpec));
     } else {
       setMeasuredDimension(measureShort(widthMeasureSpec), measureLong(heightMeasureSpec));
     }
+    mStaticDots.measure(MeasureSpec.makeMeasureSpec(getMeasuredWidth(), MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(getMeasuredHeight(), MeasureSpec.EXACTLY));
+  }
+
+  @Override protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    mStaticDots.layout(0, 0, r - l, b - t);
   }
 
   /**
@@ -559,32 +928,10 @@ public class CirclePageIndicator extends View implements PageIndicator {
    * @return The width of the com.xmchoice.yyxsjcontrol.view, honoring constraints from measureSpec
    */
   private int measureLong(int measureSpec) {
-    int result;
-    int specMode = MeasureSpec.getMode(measureSpec);
-    int specSize = MeasureSpec.getSize(measureSpec);
-
-    if ((specMode == MeasureSpec.EXACTLY) || (mViewPager == null)) {
-      // We were told how big to be
-      result = specSize;
-    } else {
-      // Calculate the width according the views count
-      final int count;
-
-      if (mPointCount != -1) {
-        count = mPointCount;
-      } else {
-        count = mViewPager.getAdapter().getCount();
-      }
-
-      result = (int) (getPaddingLeft() + getPaddingRight() + (count * 2 * mRadius)
-          + (count - 1) * mRadius + 1);
-      // Respect AT_MOST value if that was what is called for by
-      // measureSpec
-      if (specMode == MeasureSpec.AT_MOST) {
-        result = Math.min(result, specSize);
-      }
+    if (mPager == null) {
+      return MeasureSpec.getSize(measureSpec);
     }
-    return result;
+    return mLayout.measureLong(measureSpec, getDotCount());
   }
 
   /**
@@ -594,23 +941,7 @@ public class CirclePageIndicator extends View implements PageIndicator {
    * @return The height of the com.xmchoice.yyxsjcontrol.view, honoring constraints from measureSpec
    */
   private int measureShort(int measureSpec) {
-    int result;
-    int specMode = MeasureSpec.getMode(measureSpec);
-    int specSize = MeasureSpec.getSize(measureSpec);
-
-    if (specMode == MeasureSpec.EXACTLY) {
-      // We were told how big to be
-      result = specSize;
-    } else {
-      // Measure the height
-      result = (int) (2 * mRadius + getPaddingTop() + getPaddingBottom() + 1);
-      // Respect AT_MOST value if that was what is called for by
-      // measureSpec
-      if (specMode == MeasureSpec.AT_MOST) {
-        result = Math.min(result, specSize);
-      }
-    }
-    return result;
+    return mLayout.measureShort(measureSpec);
   }
 
   @Override public void onRestoreInstanceState(Parcelable state) {
@@ -659,8 +990,11 @@ public class CirclePageIndicator extends View implements PageIndicator {
 
   /**
    * 设置无线张（如100000张）时，可以设置点的个数,默认情况下 不用设置
+   *
+   * 使用 {@link LoopPagerAdapter} 或 {@link LoopRecyclerAdapter} 时点的个数自动取真实页数，此值会被忽略
    */
   @Override public void setPointCount(int pointCount) {
     this.mPointCount = pointCount;
+    invalidate();
   }
 }
@@ -0,0 +1,143 @@
+package com.indicator.viewpager;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Already downsampled bitmaps stored as files, so they survive the memory cache and process
+ * restarts without being decoded from the original again. Least recently used files are deleted
+ * once the directory grows past its limit. Safe to use from several worker threads.
+ */
+final class DiskBitmapCache {
+  private static final String TAG = "DiskBitmapCache";
+
+  private final File mDirectory;
+  private final long mMaxBytes;
+  private long mSize = -1;
+
+  DiskBitmapCache(File directory, long maxBytes) {
+    mDirectory = directory;
+    mMaxBytes = maxBytes;
+  }
+
+  synchronized Bitmap get(String key) {
+    final File file = fileFor(key);
+    if (!file.exists()) {
+      return null;
+    }
+    final Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), null);
+    if (bitmap == null) {
+      // Half written or corrupt
+      deleteFile(file);
+      return null;
+    }
+    file.setLastModified(System.currentTimeMillis());
+    return bitmap;
+  }
+
+  synchronized void put(String key, Bitmap bitmap) {
+    if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+      Log.w(TAG, "Cannot create " + mDirectory);
+      return;
+    }
+    final File file = fileFor(key);
+    final File temp = new File(file.getPath() + ".tmp");
+    OutputStream out = null;
+    try {
+      out = new BufferedOutputStream(new FileOutputStream(temp));
+      final boolean written = bitmap.hasAlpha()
+          ? bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)
+          : bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+      out.close();
+      out = null;
+      if (!written) {
+        temp.delete();
+        return;
+      }
+      deleteFile(file);
+      if (temp.renameTo(file)) {
+        mSize = size() + file.length();
+        trim();
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Cannot write " + file, e);
+      temp.delete();
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException ignored) {
+        }
+      }
+    }
+  }
+
+  private long size() {
+    if (mSize < 0) {
+      long size = 0;
+      final File[] files = mDirectory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          size += file.length();
+        }
+      }
+      mSize = size;
+    }
+    return mSize;
+  }
+
+  private void trim() {
+    if (mSize <= mMaxBytes) {
+      return;
+    }
+    final File[] files = mDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override public int compare(File lhs, File rhs) {
+        final long l = lhs.lastModified();
+        final long r = rhs.lastModified();
+        return l < r ? -1 : (l == r ? 0 : 1);
+      }
+    });
+    for (int i = 0; i < files.length && mSize > mMaxBytes; i++) {
+      deleteFile(files[i]);
+    }
+  }
+
+  private void deleteFile(File file) {
+    final long length = file.length();
+    if (file.delete() && mSize >= 0) {
+      mSize -= length;
+    }
+  }
+
+  private File fileFor(String key) {
+    return new File(mDirectory, hash(key));
+  }
+
+  private static String hash(String key) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+      final StringBuilder builder = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+        builder.append(Character.forDigit(b & 0xf, 16));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException | IOException e) {
+      return String.valueOf(key.hashCode());
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.indicator.viewpager;
+
+import java.util.Arrays;
+
+/**
+ * {@link BannerMetrics} that aggregates into fixed power-of-two histograms and plain counters,
+ * nothing is allocated after construction. Read it from the main thread, e.g. when the screen
+ * closes, and {@link #reset()} it for the next period.
+ *
+ * 直方图按 2 的幂分桶，百分位数返回所在桶的上界，误差在 2 倍以内
+ */
+public class HistogramBannerMetrics implements BannerMetrics {
+
+  private final Histogram mDrawNanos = new Histogram();
+  private final Histogram mAutoAdvanceLatencyMillis = new Histogram();
+  private final Histogram mInflateNanos = new Histogram();
+  private long mInvalidateCount;
+  private long mRedundantInvalidateCount;
+  private long mInstantiatedCount;
+  private long mDestroyedCount;
+
+  @Override public void onIndicatorDraw(long drawNanos) {
+    mDrawNanos.record(drawNanos);
+  }
+
+  @Override public void onIndicatorInvalidate(boolean redundant) {
+    mInvalidateCount++;
+    if (redundant) {
+      mRedundantInvalidateCount++;
+    }
+  }
+
+  @Override public void onAutoAdvance(long latencyMillis) {
+    mAutoAdvanceLatencyMillis.record(latencyMillis);
+  }
+
+  @Override public void onPageInstantiated() {
+    mInstantiatedCount++;
+  }
+
+  @Override public void onPageDestroyed() {
+    mDestroyedCount++;
+  }
+
+  @Override public void onBannerInflated(long inflateNanos) {
+    mInflateNanos.record(inflateNanos);
+  }
+
+  /** Indicator onDraw times in nanoseconds, one value per drawn frame. */
+  public Histogram getDrawNanos() {
+    return mDrawNanos;
+  }
+
+  /** How late auto-scroll advanced, in milliseconds; early (batched) advances count as 0. */
+  public Histogram getAutoAdvanceLatencyMillis() {
+    return mAutoAdvanceLatencyMillis;
+  }
+
+  /** Banner constructor times in nanoseconds, one value per banner the metrics were set on. */
+  public Histogram getInflateNanos() {
+    return mInflateNanos;
+  }
+
+  /** Scroll and page-select updates of the indicator, including the redundant ones. */
+  public long getInvalidateCount() {
+    return mInvalidateCount;
+  }
+
+  /** Updates that were skipped because the fill dot did not visibly move. */
+  public long getRedundantInvalidateCount() {
+    return mRedundantInvalidateCount;
+  }
+
+  public long getInstantiatedCount() {
+    return mInstantiatedCount;
+  }
+
+  public long getDestroyedCount() {
+    return mDestroyedCount;
+  }
+
+  public void reset() {
+    mDrawNanos.reset();
+    mAutoAdvanceLatencyMillis.reset();
+    mInflateNanos.reset();
+    mInvalidateCount = 0;
+    mRedundantInvalidateCount = 0;
+    mInstantiatedCount = 0;
+    mDestroyedCount = 0;
+  }
+
+  @Override public String toString() {
+    return "HistogramBannerMetrics{draws=" + mDrawNanos.getCount()
+        + ", drawP50Nanos=" + mDrawNanos.getPercentile(50)
+        + ", drawP99Nanos=" + mDrawNanos.getPercentile(99)
+        + ", invalidates=" + mInvalidateCount
+        + ", redundantInvalidates=" + mRedundantInvalidateCount
+        + ", autoAdvances=" + mAutoAdvanceLatencyMillis.getCount()
+        + ", autoAdvanceP99Millis=" + mAutoAdvanceLatencyMillis.getPercentile(99)
+        + ", instantiated=" + mInstantiatedCount
+        + ", destroyed=" + mDestroyedCount
+        + ", inflates=" + mInflateNanos.getCount()
+        + ", inflateP50Nanos=" + mInflateNanos.getPercentile(50)
+        + '}';
+  }
+
+  /**
+   * Counts of non-negative values in power-of-two buckets, bucket {@code i > 0} holds
+   * {@code [2^(i-1), 2^i)} and bucket 0 holds 0 and negative values.
+   */
+  public static final class Histogram {
+    private final long[] mBuckets = new long[Long.SIZE + 1];
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    void record(long value) {
+      if (value < 0) {
+        value = 0;
+      }
+      mBuckets[Long.SIZE - Long.numberOfLeadingZeros(value)]++;
+      mCount++;
+      mSum += value;
+      if (value > mMax) {
+        mMax = value;
+      }
+    }
+
+    void reset() {
+      Arrays.fill(mBuckets, 0);
+      mCount = 0;
+      mSum = 0;
+      mMax = 0;
+    }
+
+    public long getCount() {
+      return mCount;
+    }
+
+    public long getMax() {
+      return mMax;
+    }
+
+    public long getMean() {
+      return mCount == 0 ? 0 : mSum / mCount;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code percentile}th value (0 - 100), capped at the
+     * largest recorded value. 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+      if (mCount == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(mCount * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < mBuckets.length; i++) {
+        seen += mBuckets[i];
+        if (seen >= rank) {
+          if (i == 0) {
+            return 0;
+          }
+          return i < Long.SIZE - 1 ? Math.min(mMax, (1L << i) - 1) : mMax;
+        }
+      }
+      return mMax;
+    }
+
+    /** Number of recorded values in bucket {@code index}, see the class comment for bounds. */
+    public long getBucketCount(int index) {
+      return mBuckets[index];
+    }
+
+    public int getBucketLength() {
+      return mBuckets.length;
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package com.indicator.viewpager;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Pages showing one image each. Images are decoded on a background executor, downsampled to the
+ * size of the pager and kept in a memory cache limited in bytes, plus an optional disk cache of
+ * the downsampled bitmaps. Pages bound to an image that is already being decoded wait for that
+ * decode, so looping through the pages decodes every image once as long as it fits the caches.
+ * As a {@link PagePrefetcher} it decodes the upcoming pages of an auto-scrolling banner early.
+ * Sources are matched by {@link ImageSource#getKey()} when a new list is submitted, see
+ * {@link ListPagerAdapter#submitList(List)}, so pages of images that stay are not decoded again.
+ *
+ * 图片页面：后台解码、按 ViewPager 的大小采样，内存缓存按字节计算大小，可选磁盘缓存
+ */
+public class ImagePagerAdapter extends ListPagerAdapter<ImagePagerAdapter.ImageSource>
+    implements PagePrefetcher {
+  private static final String TAG = "ImagePagerAdapter";
+
+  /**
+   * An image to show. {@link #decode} is called twice per load from a worker thread, first with
+   * {@code inJustDecodeBounds} to read the size, then to decode with {@code inSampleSize}.
+   */
+  public interface ImageSource {
+    /** Identifies the image in the caches, e.g. its uri. */
+    String getKey();
+
+    Bitmap decode(BitmapFactory.Options options) throws IOException;
+  }
+
+  public static ImageSource fromResource(final Resources res, final int resId) {
+    return new ImageSource() {
+      @Override public String getKey() {
+        return "res:" + resId;
+      }
+
+      @Override public Bitmap decode(BitmapFactory.Options options) {
+        return BitmapFactory.decodeResource(res, resId, options);
+      }
+    };
+  }
+
+  public static ImageSource fromFile(final File file) {
+    return new ImageSource() {
+      @Override public String getKey() {
+        return "file:" + file.getPath() + ":" + file.lastModified();
+      }
+
+      @Override public Bitmap decode(BitmapFactory.Options options) {
+        return BitmapFactory.decodeFile(file.getPath(), options);
+      }
+    };
+  }
+
+  private final LruCache<String, Bitmap> mMemoryCache;
+  private DiskBitmapCache mDiskCache;
+  private Executor mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  /** Decodes in flight by cache key, with the views waiting for them. */
+  private final HashMap<String, Load> mLoads = new HashMap<>();
+
+  private int mTargetWidth;
+  private int mTargetHeight;
+  private int mDecodeCount;
+
+  /**
+   * Uses an eighth of the heap for the memory cache.
+   */
+  public ImagePagerAdapter(List<? extends ImageSource> sources) {
+    this(sources, (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8));
+  }
+
+  public ImagePagerAdapter(List<? extends ImageSource> sources, int memoryCacheBytes) {
+    super(sources);
+    mMemoryCache = new LruCache<String, Bitmap>(memoryCacheBytes) {
+      @Override protected int sizeOf(String key, Bitmap value) {
+        return value.getByteCount();
+      }
+    };
+  }
+
+  /**
+   * Also keeps the downsampled bitmaps in {@code directory}, at most {@code maxBytes}. Use a
+   * directory under {@code Context.getCacheDir()} that no other cache writes to.
+   */
+  public void setDiskCache(File directory, long maxBytes) {
+    mDiskCache = directory != null ? new DiskBitmapCache(directory, maxBytes) : null;
+  }
+
+  /** Executor the images are decoded on, {@link AsyncTask#THREAD_POOL_EXECUTOR} by default. */
+  public void setExecutor(Executor executor) {
+    mExecutor = executor;
+  }
+
+  /** Number of images decoded from their source, i.e. missed by both caches. */
+  public int getDecodeCount() {
+    return mDecodeCount;
+  }
+
+  public void clearMemoryCache() {
+    mMemoryCache.evictAll();
+  }
+
+  /**
+   * Also halves the memory cache, or empties it once the app is in the background.
+   */
+  @Override public void onTrimMemory(int level) {
+    super.onTrimMemory(level);
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      mMemoryCache.evictAll();
+    } else {
+      mMemoryCache.trimToSize(mMemoryCache.size() / 2);
+    }
+  }
+
+  @Override public Object getKey(ImageSource item) {
+    return item.getKey();
+  }
+
+  /** The key identifies the image, a source with the same key shows the same image. */
+  @Override public boolean areContentsTheSame(ImageSource oldItem, ImageSource newItem) {
+    return true;
+  }
+
+  @Override public View onCreateView(ViewGroup container, int viewType) {
+    final ImageView imageView = new ImageView(container.getContext());
+    imageView.setScaleType(ImageView.ScaleType.CENTER_CROP);
+    return imageView;
+  }
+
+  /**
+   * The view the image of a page is shown in, override together with
+   * {@link #onCreateView(ViewGroup, int)} for pages that are not a bare ImageView.
+   */
+  protected ImageView getImageView(View page) {
+    return (ImageView) page;
+  }
+
+  @Override public Object instantiateItem(ViewGroup container, int position) {
+    mTargetWidth = container.getMeasuredWidth();
+    mTargetHeight = container.getMeasuredHeight();
+    if (mTargetWidth <= 0 || mTargetHeight <= 0) {
+      // Not laid out yet, the pager is at most as big as the screen
+      final DisplayMetrics metrics = container.getResources().getDisplayMetrics();
+      mTargetWidth = metrics.widthPixels;
+      mTargetHeight = metrics.heightPixels;
+    }
+    return super.instantiateItem(container, position);
+  }
+
+  @Override public void onBindView(View view, int position) {
+    final ImageView imageView = getImageView(view);
+    final ImageSource source = getItem(position);
+    final String key = source.getKey() + "@" + mTargetWidth + "x" + mTargetHeight;
+    imageView.setTag(R.id.iv_image_key, key);
+
+    final Bitmap cached = mMemoryCache.get(key);
+    if (cached != null) {
+      imageView.setImageBitmap(cached);
+      return;
+    }
+    imageView.setImageDrawable(null);
+    requestLoad(key, source).mTargets.add(imageView);
+  }
+
+  /**
+   * Starts decoding the image of {@code position} into the memory cache, unless it is cached or
+   * already loading. Does nothing before the first page was instantiated, the size is unknown.
+   */
+  @Override public void onPrefetch(int position, long displayAtMillis) {
+    if (mTargetWidth <= 0 || position < 0 || position >= getCount()) {
+      return;
+    }
+    final ImageSource source = getItem(position);
+    final String key = source.getKey() + "@" + mTargetWidth + "x" + mTargetHeight;
+    if (mMemoryCache.get(key) == null) {
+      requestLoad(key, source);
+    }
+  }
+
+  private Load requestLoad(String key, ImageSource source) {
+    Load load = mLoads.get(key);
+    if (load == null) {
+      load = new Load(key, source, mTargetWidth, mTargetHeight, mDiskCache);
+      mLoads.put(key, load);
+      mExecutor.execute(load);
+    }
+    return load;
+  }
+
+  @Override protected void onViewRecycled(View view) {
+    final ImageView imageView = getImageView(view);
+    imageView.setTag(R.id.iv_image_key, null);
+    imageView.setImageDrawable(null);
+  }
+
+  /** Called on the main thread when a decode finished, {@code bitmap} is null if it failed. */
+  private void onLoaded(Load load, Bitmap bitmap) {
+    mLoads.remove(load.mKey);
+    if (load.mDecoded) {
+      mDecodeCount++;
+    }
+    if (bitmap == null) {
+      return;
+    }
+    mMemoryCache.put(load.mKey, bitmap);
+    for (int i = 0, size = load.mTargets.size(); i < size; i++) {
+      final ImageView imageView = load.mTargets.get(i);
+      // Skip views that were recycled and rebound to another image meanwhile
+      if (load.mKey.equals(imageView.getTag(R.id.iv_image_key))) {
+        imageView.setImageBitmap(bitmap);
+      }
+    }
+  }
+
+  static int computeSampleSize(int width, int height, int targetWidth, int targetHeight) {
+    int sampleSize = 1;
+    // Largest power of two that keeps both sides at least as big as the target
+    while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+
+  private final class Load implements Runnable {
+    final String mKey;
+    final ImageSource mSource;
+    final int mTargetWidth;
+    final int mTargetHeight;
+    final DiskBitmapCache mDiskCache;
+    final ArrayList<ImageView> mTargets = new ArrayList<>(2);
+    boolean mDecoded;
+
+    Load(String key, ImageSource source, int targetWidth, int targetHeight,
+        DiskBitmapCache diskCache) {
+      mKey = key;
+      mSource = source;
+      mTargetWidth = targetWidth;
+      mTargetHeight = targetHeight;
+      mDiskCache = diskCache;
+    }
+
+    @Override public void run() {
+      Bitmap bitmap = mDiskCache != null ? mDiskCache.get(mKey) : null;
+      if (bitmap == null) {
+        bitmap = decode();
+        if (bitmap != null && mDiskCache != null) {
+          mDiskCache.put(mKey, bitmap);
+        }
+      }
+      final Bitmap result = bitmap;
+      mHandler.post(new Runnable() {
+        @Override public void run() {
+          onLoaded(Load.this, result);
+        }
+      });
+    }
+
+    private Bitmap decode() {
+      mDecoded = true;
+      try {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        mSource.decode(options);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize =
+            computeSampleSize(options.outWidth, options.outHeight, mTargetWidth, mTargetHeight);
+        return mSource.decode(options);
+      } catch (IOException | OutOfMemoryError e) {
+        Log.w(TAG, "Cannot decode " + mSource.getKey(), e);
+        return null;
+      }
+    }
+  }
+}
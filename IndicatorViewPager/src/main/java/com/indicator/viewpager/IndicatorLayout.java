@@ -0,0 +1,420 @@
+package com.indicator.viewpager;
+
+/**
+ * Geometry of a {@link CirclePageIndicator}: where the dots sit, which window of dots is shown,
+ * where the fill dot is for a scroll position and how big the indicator measures. Uses no
+ * android types so it can be benchmarked and tested on a plain JVM, the view only feeds it its
+ * size and paddings. Not thread safe, use it from one thread.
+ *
+ * 纯 Java 的布局计算，CirclePageIndicator 只负责绘制
+ */
+public final class IndicatorLayout {
+
+  public static final int HORIZONTAL = 0;
+  public static final int VERTICAL = 1;
+
+  /** Measure modes, same bits as {@code View.MeasureSpec} so specs can be passed straight in. */
+  private static final int MODE_SHIFT = 30;
+  private static final int MODE_MASK = 0x3 << MODE_SHIFT;
+  public static final int UNSPECIFIED = 0;
+  public static final int EXACTLY = 1 << MODE_SHIFT;
+  public static final int AT_MOST = 2 << MODE_SHIFT;
+
+  private float mRadius;
+  private float mPointMargin;
+  private float mStrokeWidth;
+  private int mOrientation = HORIZONTAL;
+  private boolean mCentered;
+  private int mPaddingSide;
+  private int mVisibleDotCount = -1;
+
+  private int mWidth;
+  private int mHeight;
+  private int mPaddingLeft;
+  private int mPaddingTop;
+  private int mPaddingRight;
+  private int mPaddingBottom;
+
+  /** Dot centers as x/y pairs, rebuilt only when {@link #mDirty} is set or the count changes. */
+  private float[] mDotCenters = new float[0];
+  private int mCount = -1;
+  private boolean mDirty = true;
+  private float mStep;
+  private float mPageFillRadius;
+
+  private int mWindowStart;
+  private int mWindowTotal;
+
+  public static int makeMeasureSpec(int size, int mode) {
+    return (size & ~MODE_MASK) | (mode & MODE_MASK);
+  }
+
+  public void setRadius(float radius) {
+    mRadius = radius;
+    mDirty = true;
+  }
+
+  public float getRadius() {
+    return mRadius;
+  }
+
+  public void setPointMargin(float pointMargin) {
+    mPointMargin = pointMargin;
+    mDirty = true;
+  }
+
+  public float getPointMargin() {
+    return mPointMargin;
+  }
+
+  public void setStrokeWidth(float strokeWidth) {
+    mStrokeWidth = strokeWidth;
+    mDirty = true;
+  }
+
+  public float getStrokeWidth() {
+    return mStrokeWidth;
+  }
+
+  public void setOrientation(int orientation) {
+    if (orientation != HORIZONTAL && orientation != VERTICAL) {
+      throw new IllegalArgumentException("Orientation must be either HORIZONTAL or VERTICAL.");
+    }
+    mOrientation = orientation;
+    mDirty = true;
+  }
+
+  public int getOrientation() {
+    return mOrientation;
+  }
+
+  public void setCentered(boolean centered) {
+    mCentered = centered;
+    mDirty = true;
+  }
+
+  public boolean isCentered() {
+    return mCentered;
+  }
+
+  public void setPaddingSide(int paddingSide) {
+    mPaddingSide = paddingSide;
+    mDirty = true;
+  }
+
+  public int getPaddingSide() {
+    return mPaddingSide;
+  }
+
+  /** See {@link CirclePageIndicator#setVisibleDotCount(int)}, -1 draws one dot per page. */
+  public void setVisibleDotCount(int visibleDotCount) {
+    mVisibleDotCount = visibleDotCount;
+    mDirty = true;
+  }
+
+  public int getVisibleDotCount() {
+    return mVisibleDotCount;
+  }
+
+  /**
+   * Size and paddings of the indicator. The layout only goes stale if one of them changed.
+   */
+  public void setBounds(int width, int height, int paddingLeft, int paddingTop, int paddingRight,
+      int paddingBottom) {
+    if (width == mWidth && height == mHeight && paddingLeft == mPaddingLeft
+        && paddingTop == mPaddingTop && paddingRight == mPaddingRight
+        && paddingBottom == mPaddingBottom) {
+      return;
+    }
+    mWidth = width;
+    mHeight = height;
+    mPaddingLeft = paddingLeft;
+    mPaddingTop = paddingTop;
+    mPaddingRight = paddingRight;
+    mPaddingBottom = paddingBottom;
+    mDirty = true;
+  }
+
+  /** Whether the next {@link #layout(int)} has to recompute the dot centers. */
+  public boolean isDirty() {
+    return mDirty;
+  }
+
+  /**
+   * Makes sure the dot centers are laid out for {@code count} drawn dots.
+   *
+   * @return true if they had to be recomputed
+   */
+  public boolean layout(int count) {
+    if (!mDirty && mCount == count) {
+      return false;
+    }
+    computeDotLayout(count);
+    return true;
+  }
+
+  private void computeDotLayout(int count) {
+    int longSize;
+    int longPaddingBefore;
+    int longPaddingAfter;
+    int shortPaddingBefore;
+    if (mOrientation == HORIZONTAL) {
+      longSize = mWidth;
+      longPaddingBefore = mPaddingLeft;
+      longPaddingAfter = mPaddingRight;
+      shortPaddingBefore = mPaddingTop;
+    } else {
+      longSize = mHeight;
+      longPaddingBefore = mPaddingTop;
+      longPaddingAfter = mPaddingBottom;
+      shortPaddingBefore = mPaddingLeft;
+    }
+
+    final float threeRadius;
+
+    if (mPointMargin < mRadius) {
+      threeRadius = mRadius * 3;
+    } else {
+      threeRadius = mRadius * 2 + mPointMargin;
+    }
+
+    final float shortOffset = shortPaddingBefore + mRadius;
+    float longOffset = longPaddingBefore + mRadius;
+    if (mCentered) {
+      longOffset +=
+          ((longSize - longPaddingBefore - longPaddingAfter) / 2.0f) - ((count * threeRadius)
+              / 2.0f);
+    }
+
+    // Offset of the first dot along the long axis, the per-dot branches are folded in here
+    float firstLong;
+    if (mOrientation == HORIZONTAL) {
+      firstLong = longOffset + ((threeRadius - mRadius * 2) / 2);
+      if (mPaddingSide < 0) {
+        firstLong -= longOffset + mPaddingSide;
+      } else if (mPaddingSide > 0) {
+        firstLong += longOffset - mPaddingSide;
+      }
+    } else {
+      firstLong = longOffset;
+    }
+
+    if (mDotCenters.length != count * 2) {
+      mDotCenters = new float[count * 2];
+    }
+    for (int iLoop = 0; iLoop < count; iLoop++) {
+      final float drawLong = firstLong + (iLoop * threeRadius);
+      if (mOrientation == HORIZONTAL) {
+        mDotCenters[iLoop * 2] = drawLong;
+        mDotCenters[iLoop * 2 + 1] = shortOffset;
+      } else {
+        mDotCenters[iLoop * 2] = shortOffset;
+        mDotCenters[iLoop * 2 + 1] = drawLong;
+      }
+    }
+
+    float pageFillRadius = mRadius;
+    if (mStrokeWidth > 0) {
+      pageFillRadius -= mStrokeWidth / 2.0f;
+    }
+
+    mStep = threeRadius;
+    mPageFillRadius = pageFillRadius;
+    mCount = count;
+    mDirty = false;
+  }
+
+  /** Dot centers as x/y pairs for the last {@link #layout(int)}, do not modify. */
+  public float[] getDotCenters() {
+    return mDotCenters;
+  }
+
+  /** Number of dots of the last {@link #layout(int)}, -1 before the first one. */
+  public int getCount() {
+    return mCount;
+  }
+
+  /** Distance between two neighbouring dot centers. */
+  public float getStep() {
+    return mStep;
+  }
+
+  /** Radius of the page fill, the radius minus half the stroke. */
+  public float getPageFillRadius() {
+    return mPageFillRadius;
+  }
+
+  /** Number of dots actually drawn for {@code total} pages. */
+  public int getDrawnDotCount(int total) {
+    if (mVisibleDotCount > 0 && total > mVisibleDotCount) {
+      return mVisibleDotCount;
+    }
+    return total;
+  }
+
+  /** First page shown in the dot window while {@code page} is current. */
+  public int computeWindowStart(int page, int total) {
+    if (mVisibleDotCount <= 0 || total <= mVisibleDotCount) {
+      return 0;
+    }
+    return Math.max(0, Math.min(page - mVisibleDotCount / 2, total - mVisibleDotCount));
+  }
+
+  /**
+   * Moves the dot window so that {@code page} is shown.
+   *
+   * @return true if the window moved, i.e. the unselected dots have to be redrawn
+   */
+  public boolean updateWindow(int page, int total) {
+    final int windowStart = computeWindowStart(page, total);
+    if (windowStart == mWindowStart && total == mWindowTotal) {
+      return false;
+    }
+    mWindowStart = windowStart;
+    mWindowTotal = total;
+    return true;
+  }
+
+  /** Whether drawing {@code page} of {@code total} needs a different layout or dot window. */
+  public boolean needsRelayout(int page, int total) {
+    return mDirty || mCount != getDrawnDotCount(total) || total != mWindowTotal
+        || computeWindowStart(page, total) != mWindowStart;
+  }
+
+  public int getWindowStart() {
+    return mWindowStart;
+  }
+
+  /** Radius scale of the dot at {@code index} in the window, edge dots shrink. */
+  public float getDotScale(int index) {
+    final int count = mCount;
+    if (count < mVisibleDotCount || mVisibleDotCount < 5) {
+      return 1f;
+    }
+    final int fromStart = index;
+    final int fromEnd = count - 1 - index;
+    if (mWindowStart > 0 && fromStart < 2) {
+      return fromStart == 0 ? 0.5f : 0.75f;
+    }
+    if (mWindowStart + count < mWindowTotal && fromEnd < 2) {
+      return fromEnd == 0 ? 0.5f : 0.75f;
+    }
+    return 1f;
+  }
+
+  /**
+   * Distance of the fill dot from the first drawn dot along the long axis, for the dot of
+   * {@code point} scrolled by {@code offset} pages.
+   */
+  public float getFillOffset(int point, float offset) {
+    return (point - mWindowStart + offset) * mStep;
+  }
+
+  public float getFillX(int point, float offset) {
+    final float x = mDotCenters[0];
+    return mOrientation == HORIZONTAL ? x + getFillOffset(point, offset) : x;
+  }
+
+  public float getFillY(int point, float offset) {
+    final float y = mDotCenters[1];
+    return mOrientation == HORIZONTAL ? y : y + getFillOffset(point, offset);
+  }
+
+  /**
+   * Index of the drawn dot at {@code x}, {@code y}, or -1. A dot is hit within {@code slop} of
+   * its circle, but never further than halfway to its neighbours.
+   */
+  public int hitTest(float x, float y, float slop) {
+    final int count = mCount;
+    if (count <= 0) {
+      return -1;
+    }
+    final boolean horizontal = mOrientation == HORIZONTAL;
+    final float along = horizontal ? x - mDotCenters[0] : y - mDotCenters[1];
+    final float across = horizontal ? y - mDotCenters[1] : x - mDotCenters[0];
+    final float reach = mRadius + slop;
+    if (Math.abs(across) > reach) {
+      return -1;
+    }
+    final int index = Math.round(along / mStep);
+    if (index < 0 || index >= count
+        || Math.abs(along - index * mStep) > Math.min(reach, mStep / 2)) {
+      return -1;
+    }
+    return index;
+  }
+
+  /**
+   * Pager position of dot {@code point} when the pages repeat every {@code pointCount} pages, see
+   * {@link CirclePageIndicator#setPointCount(int)}: the page of that dot in the cycle of
+   * {@code currentPage}.
+   */
+  public static int toCyclePage(int point, int currentPage, int pointCount) {
+    return currentPage - currentPage % pointCount + point;
+  }
+
+  /**
+   * Page the fill dot belongs to while the pager scrolls from {@code position} by
+   * {@code positionOffset}. When scrolling off the last dot of a looping pager the fill jumps to
+   * the first dot once past halfway instead of sliding out of the row; the remaining offset is
+   * {@code positionOffset - (page - position)}.
+   */
+  public static int mapScrollPage(int position, float positionOffset, boolean wrapsFromLastDot) {
+    if (wrapsFromLastDot && positionOffset >= 0.5f) {
+      return position + 1;
+    }
+    return position;
+  }
+
+  /**
+   * Size along the dot row for {@code total} pages, honoring {@code measureSpec}.
+   */
+  public int measureLong(int measureSpec, int total) {
+    int result;
+    int specMode = measureSpec & MODE_MASK;
+    int specSize = measureSpec & ~MODE_MASK;
+
+    if (specMode == EXACTLY) {
+      // We were told how big to be
+      result = specSize;
+    } else {
+      // Calculate the width according the views count
+      final int count = getDrawnDotCount(total);
+
+      final int padding = mOrientation == HORIZONTAL
+          ? mPaddingLeft + mPaddingRight : mPaddingTop + mPaddingBottom;
+      result = (int) (padding + (count * 2 * mRadius) + Math.max(count - 1, 0) * mRadius + 1);
+      // Respect AT_MOST value if that was what is called for by
+      // measureSpec
+      if (specMode == AT_MOST) {
+        result = Math.min(result, specSize);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Size across the dot row, honoring {@code measureSpec}.
+   */
+  public int measureShort(int measureSpec) {
+    int result;
+    int specMode = measureSpec & MODE_MASK;
+    int specSize = measureSpec & ~MODE_MASK;
+
+    if (specMode == EXACTLY) {
+      // We were told how big to be
+      result = specSize;
+    } else {
+      // Measure the height
+      final int padding = mOrientation == HORIZONTAL
+          ? mPaddingTop + mPaddingBottom : mPaddingLeft + mPaddingRight;
+      result = (int) (2 * mRadius + padding + 1);
+      // Respect AT_MOST value if that was what is called for by
+      // measureSpec
+      if (specMode == AT_MOST) {
+        result = Math.min(result, specSize);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,212 @@
+package com.indicator.viewpager;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+/**
+ * The resolved {@code iv_} attributes of an {@link IndicatorViewPager}, immutable. Resolving is
+ * done once per theme and distinct set of attributes and shared by all banners inflated from the
+ * same layout, see {@link #obtain(Context, AttributeSet)}; apply it to an indicator with
+ * {@link CirclePageIndicator#applyStyle(IndicatorStyle)}.
+ *
+ * 解析后的指示器样式，同一个主题、同样的属性只解析一次，多个 banner 共用
+ */
+public final class IndicatorStyle {
+  public static final int GRAVITY_LEFT = 0;
+  public static final int GRAVITY_CENTER = 1;
+  public static final int GRAVITY_RIGHT = 2;
+
+  public static final int PAGER_VIEW_PAGER = 0;
+  public static final int PAGER_RECYCLER_VIEW = 1;
+
+  /** Resolved styles by theme, then by {@link #cacheKey(AttributeSet)}. */
+  private static final WeakHashMap<Resources.Theme, HashMap<String, IndicatorStyle>> sCache =
+      new WeakHashMap<>();
+
+  private final int mLayoutId;
+  private final int mFillColor;
+  private final int mPageColor;
+  private final int mStrokeColor;
+  private final float mStrokeWidth;
+  private final float mPointMargin;
+  private final float mRadius;
+  private final float mPaddingBottom;
+  private final int mGravity;
+  private final float mPaddingSide;
+  private final int mVisibleDotCount;
+  private final boolean mIndicatorOverlay;
+  private final boolean mDeferInflate;
+  private final int mPlaceholderColor;
+  private final int mPagerType;
+  // The banner has no attributes for these, they come from the theme's vpiCirclePageIndicatorStyle
+  final boolean mCentered;
+  final boolean mSnap;
+  final int mOrientation;
+  /** The indicator background of the theme, null for none. */
+  final Drawable.ConstantState mBackground;
+
+  private IndicatorStyle(Resources res, TypedArray a, TypedArray indicator) {
+    final int defaultPageColor = res.getColor(R.color.default_circle_indicator_page_color);
+    final int defaultFillColor = res.getColor(R.color.default_circle_indicator_fill_color);
+    final int defaultStrokeColor = res.getColor(R.color.default_circle_indicator_stroke_color);
+    final float defaultStrokeWidth =
+        res.getDimension(R.dimen.default_circle_indicator_stroke_width);
+    final float pointMargin = res.getDimension(R.dimen.default_circle_point_margin);
+    final float defaultRadius = res.getDimension(R.dimen.default_circle_indicator_radius);
+
+    mLayoutId = a.getResourceId(R.styleable.indicator_viewpager_iv_mainLayoutId, 0);
+    mFillColor = a.getColor(R.styleable.indicator_viewpager_iv_fillColor, defaultFillColor);
+    mPageColor = a.getColor(R.styleable.indicator_viewpager_iv_pageColor, defaultPageColor);
+    mStrokeColor = a.getColor(R.styleable.indicator_viewpager_iv_strokeColor, defaultStrokeColor);
+    mStrokeWidth =
+        a.getDimension(R.styleable.indicator_viewpager_iv_strokeWidth, defaultStrokeWidth);
+    mPointMargin = a.getDimension(R.styleable.indicator_viewpager_iv_pointMargin, pointMargin);
+    mRadius = a.getDimension(R.styleable.indicator_viewpager_iv_radius, defaultRadius);
+    mPaddingBottom =
+        a.getDimension(R.styleable.indicator_viewpager_iv_paddingBottom, defaultRadius);
+    mPaddingSide = a.getDimension(R.styleable.indicator_viewpager_iv_paddingSide, 0);
+    mGravity = a.getInteger(R.styleable.indicator_viewpager_iv_gravity, GRAVITY_CENTER);
+    mVisibleDotCount = a.getInt(R.styleable.indicator_viewpager_iv_visibleDotCount, -1);
+    mIndicatorOverlay = a.getBoolean(R.styleable.indicator_viewpager_iv_indicatorOverlay, false);
+    mDeferInflate = a.getBoolean(R.styleable.indicator_viewpager_iv_deferInflate, false);
+    mPlaceholderColor = a.getColor(R.styleable.indicator_viewpager_iv_placeholderColor, 0);
+    mPagerType = a.getInt(R.styleable.indicator_viewpager_iv_pager, PAGER_VIEW_PAGER);
+
+    mCentered = indicator.getBoolean(R.styleable.CirclePageIndicator_centered,
+        res.getBoolean(R.bool.default_circle_indicator_centered));
+    mSnap = indicator.getBoolean(R.styleable.CirclePageIndicator_snap,
+        res.getBoolean(R.bool.default_circle_indicator_snap));
+    mOrientation = indicator.getInt(R.styleable.CirclePageIndicator_android_orientation,
+        res.getInteger(R.integer.default_circle_indicator_orientation));
+    final Drawable background =
+        indicator.getDrawable(R.styleable.CirclePageIndicator_android_background);
+    mBackground = background != null ? background.getConstantState() : null;
+  }
+
+  /**
+   * The style of a banner with {@code attrs} in the theme of {@code context}, resolved on first
+   * use. Banners inflated from the same layout element, or created without attributes, get the
+   * same instance. Call on the main thread.
+   */
+  public static IndicatorStyle obtain(Context context, AttributeSet attrs) {
+    final Resources.Theme theme = context.getTheme();
+    final String key = cacheKey(attrs);
+    synchronized (sCache) {
+      HashMap<String, IndicatorStyle> styles = sCache.get(theme);
+      if (styles == null) {
+        styles = new HashMap<>();
+        sCache.put(theme, styles);
+      }
+      IndicatorStyle style = styles.get(key);
+      if (style == null) {
+        final TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.indicator_viewpager);
+        // What the indicator's own constructor would read from the theme without attributes
+        final TypedArray indicator = context.obtainStyledAttributes(null,
+            R.styleable.CirclePageIndicator, R.attr.vpiCirclePageIndicatorStyle, 0);
+        try {
+          style = new IndicatorStyle(context.getResources(), a, indicator);
+        } finally {
+          indicator.recycle();
+          a.recycle();
+        }
+        styles.put(key, style);
+      }
+      return style;
+    }
+  }
+
+  /** Drops all resolved styles, e.g. after the theme attributes were changed at runtime. */
+  public static void clearCache() {
+    synchronized (sCache) {
+      sCache.clear();
+    }
+  }
+
+  /**
+   * The style resource plus the raw {@code iv_} attribute values of the element. Raw values of the
+   * same layout element are equal across inflations, references to resources and theme attributes
+   * are resolved against the theme the key is stored under.
+   */
+  private static String cacheKey(AttributeSet attrs) {
+    if (attrs == null) {
+      return "";
+    }
+    final StringBuilder key = new StringBuilder().append(attrs.getStyleAttribute());
+    for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+      final String name = attrs.getAttributeName(i);
+      if (name.startsWith("iv_")) {
+        key.append(';').append(name).append('=').append(attrs.getAttributeValue(i));
+      }
+    }
+    return key.toString();
+  }
+
+  /** The iv_mainLayoutId layout, 0 for the default one. */
+  public int getLayoutId() {
+    return mLayoutId;
+  }
+
+  public int getFillColor() {
+    return mFillColor;
+  }
+
+  public int getPageColor() {
+    return mPageColor;
+  }
+
+  public int getStrokeColor() {
+    return mStrokeColor;
+  }
+
+  public float getStrokeWidth() {
+    return mStrokeWidth;
+  }
+
+  public float getPointMargin() {
+    return mPointMargin;
+  }
+
+  public float getRadius() {
+    return mRadius;
+  }
+
+  public float getPaddingBottom() {
+    return mPaddingBottom;
+  }
+
+  /** One of {@link #GRAVITY_LEFT}, {@link #GRAVITY_CENTER} and {@link #GRAVITY_RIGHT}. */
+  public int getGravity() {
+    return mGravity;
+  }
+
+  public float getPaddingSide() {
+    return mPaddingSide;
+  }
+
+  public int getVisibleDotCount() {
+    return mVisibleDotCount;
+  }
+
+  public boolean isIndicatorOverlay() {
+    return mIndicatorOverlay;
+  }
+
+  public boolean isDeferInflate() {
+    return mDeferInflate;
+  }
+
+  /** {@link #PAGER_VIEW_PAGER} or {@link #PAGER_RECYCLER_VIEW}, for the default layout. */
+  public int getPagerType() {
+    return mPagerType;
+  }
+
+  /** Color drawn while the banner defers building its pages, 0 for none. */
+  public int getPlaceholderColor() {
+    return mPlaceholderColor;
+  }
+}
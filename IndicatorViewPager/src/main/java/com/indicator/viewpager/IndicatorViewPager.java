@@ -4,14 +4,25 @@ package com.indicator.viewpager;/**
  */
 
 import android.content.Context;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.support.v4.view.PagerAdapter;
 import android.support.v4.view.ViewPager;
+import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
+import android.util.Log;
+import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 
 /**
@@ -35,147 +46,1090 @@ import android.widget.FrameLayout;
  *
  */
 public class IndicatorViewPager extends FrameLayout implements View.OnTouchListener {
+  /** {@link #setPageMemoryBudget(long)} 按设备的 memoryClass 取预算 */
+  public static final long PAGE_MEMORY_BUDGET_AUTO = PageMemoryBudget.BUDGET_AUTO;
 
+  private static final String TAG = "IndicatorViewPager";
+
+  /** 自定义布局（iv_mainLayoutId），0 表示直接创建 ViewPager 和指示器，不嵌套布局 */
   protected int mLayout;
-  private int mFillColor;
-  private int mPageColor;
-  private int mStrokeColor;
-  private float mStrokeWidth;
-  private float mPointMargin;
-  private float mRadius;
-  private float mPaddingBottom;
+  /** 解析后的 iv_ 属性，相同主题、相同属性的 banner 共用一个 */
+  private IndicatorStyle mStyle;
+  /** 构造（解析属性、创建子 View）耗时 */
+  private long mInflateNanos;
+  /** 默认的 ViewPager，使用 RecyclerView 时为 null */
   private ViewPager mVp_banner;
+  private RecyclerPagerSource mRecyclerSource;
+  private PagerSource mPager;
   private CirclePageIndicator mIndicator;
 
   private Runnable mRunnable = null;
-  private int mGravity;
-  private float mPaddingSide;
+  /** 自动轮播按绝对时间（uptimeMillis）postAtTime，不受 View 是否 attach 影响 */
+  private final Handler mTickHandler = new Handler(Looper.getMainLooper());
+  private AutoScrollPolicy mPolicy = new AutoScrollPolicy();
+
+  // 自动轮播只在 attach、窗口可见且有焦点、在屏幕内、没有被触摸时运行
+  private boolean mAutoScrollEnabled;
+  private boolean mAutoScrollRunning;
+  private boolean mAttached;
+  private boolean mTouching;
+  private boolean mOnScreen = true;
+  private final Rect mVisibleRect = new Rect();
+
+  // 自适应：用户触摸过的页面停留更久，掉帧的切换之后缩短切换动画
+  private static final int FRAME_MILLIS = 16;
+  private BannerScroller mScroller;
+  private boolean mPageEngaged;
+  private int mTransitionDuration = AutoScrollPolicy.DEFAULT_TRANSITION_DURATION;
+  private boolean mAutoTransition;
+  private long mLastScrolledAt;
+  private int mDroppedFrames;
+
+  private boolean mUseSharedTicker;
+  private final BannerTicker.Client mTickerClient = new BannerTicker.Client() {
+    @Override public void onTick(long now) {
+      onAutoScrollTick(now);
+    }
+  };
+  private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener =
+      new ViewTreeObserver.OnScrollChangedListener() {
+        @Override public void onScrollChanged() {
+          // 自己的 ViewPager 在滑动时也会回调，只记录其他 View 的滚动
+          if (mPagerScrollState == ViewPager.SCROLL_STATE_IDLE) {
+            mLastForeignScrollAt = SystemClock.uptimeMillis();
+          }
+          updateOnScreen();
+          if (mDeferred && getLocalVisibleRect(mVisibleRect)) {
+            // 滚动到屏幕内了，不再等主线程空闲；这里还在绘制过程中，下一个消息再加入子 View
+            post(mEnsureInflatedRunnable);
+          }
+        }
+      };
+
+  /** 其他 View 停止滚动这么久之后才允许自动切换 */
+  private static final int SCROLL_IDLE_MILLIS = 150;
+  private boolean mDeferWhileScrolling;
+  private long mLastForeignScrollAt;
+  private int mPagerScrollState = ViewPager.SCROLL_STATE_IDLE;
+  private Interpolator mTransitionInterpolator;
+
+  /**
+   * 滑到镜像页并停下后，无动画跳回对应的真实页；同时统计自动切换过程中的掉帧
+   */
+  private final ViewPager.OnPageChangeListener mPageChangeListener =
+      new ViewPager.SimpleOnPageChangeListener() {
+        @Override
+        public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+          if (!mAutoTransition) {
+            return;
+          }
+          final long now = SystemClock.uptimeMillis();
+          if (mLastScrolledAt != 0) {
+            final long gap = now - mLastScrolledAt;
+            if (gap > FRAME_MILLIS * 3 / 2) {
+              mDroppedFrames += (int) ((gap + FRAME_MILLIS / 2) / FRAME_MILLIS) - 1;
+            }
+          }
+          mLastScrolledAt = now;
+        }
+
+        @Override public void onPageScrollStateChanged(int state) {
+          mPagerScrollState = state;
+          if (state != ViewPager.SCROLL_STATE_IDLE) {
+            return;
+          }
+          if (mMemoryBudget != null && mMemoryBudget.getBudget() >= 0) {
+            // 图片可能在页面创建之后才加载完
+            mMemoryBudget.requestUpdate();
+          }
+          if (mAutoTransition) {
+            mAutoTransition = false;
+            mTransitionDuration =
+                mPolicy.computeTransitionDurationMillis(mTransitionDuration, mDroppedFrames);
+          }
+          final int current = mPager.getCurrentItem();
+          final int snap = mPager.getSnapPosition(current);
+          if (snap != current) {
+            mPager.setCurrentItem(snap, false);
+          }
+        }
+      };
+  private BannerMetrics mMetrics;
+  /** 当前这次自动切换计划执行的时间（uptimeMillis），下一次在它的基础上加停留时间，不会累积延迟 */
+  private long mTickScheduledAt;
+  private long mLastTickLatenessMillis;
+  private long mCoalescedTickCount;
+  private final ViewGroup.OnHierarchyChangeListener mPageHierarchyListener =
+      new ViewGroup.OnHierarchyChangeListener() {
+        @Override public void onChildViewAdded(View parent, View child) {
+          if (mMetrics != null) {
+            mMetrics.onPageInstantiated();
+          }
+          if (mMemoryBudget != null && mMemoryBudget.getBudget() >= 0) {
+            mMemoryBudget.requestUpdate();
+          }
+        }
+
+        @Override public void onChildViewRemoved(View parent, View child) {
+          if (mMetrics != null) {
+            mMetrics.onPageDestroyed();
+          }
+        }
+      };
+
+  /** 只用于 ViewPager，RecyclerView 自己回收页面 */
+  private PageMemoryBudget mMemoryBudget;
+
+  private PagePrefetcher mPrefetcher;
+  private int mPrefetchCount;
+  /** ViewPager 位置，下一页已经预取过就不再重复通知 */
+  private int mPrefetchedFrom = -1;
+  private boolean mPrefetchQueued;
+  private boolean mAdapterPrefetcher;
+  private final MessageQueue.IdleHandler mPrefetchIdleHandler = new MessageQueue.IdleHandler() {
+    @Override public boolean queueIdle() {
+      mPrefetchQueued = false;
+      prefetchUpcoming();
+      return false;
+    }
+  };
+
+  private boolean mIndicatorOverlay;
+
+  // 适配器数据变化：等 ViewPager/RecyclerView 处理完变化之后再更新指示器，并从镜像页跳回真实页
+  private PagerAdapter mObservedAdapter;
+  private RecyclerView.Adapter<?> mObservedRecyclerAdapter;
+  private final Runnable mDataSetChangedRunnable = new Runnable() {
+    @Override public void run() {
+      onDataSetChanged();
+    }
+  };
+  private final DataSetObserver mAdapterObserver = new DataSetObserver() {
+    @Override public void onChanged() {
+      postDataSetChanged();
+    }
+  };
+  private final RecyclerView.AdapterDataObserver mRecyclerAdapterObserver =
+      new RecyclerView.AdapterDataObserver() {
+        @Override public void onChanged() {
+          postDataSetChanged();
+        }
+
+        @Override public void onItemRangeInserted(int positionStart, int itemCount) {
+          postDataSetChanged();
+        }
+
+        @Override public void onItemRangeRemoved(int positionStart, int itemCount) {
+          postDataSetChanged();
+        }
+
+        @Override public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+          postDataSetChanged();
+        }
+      };
+
+  // 延迟创建：先只占位，第一帧之后主线程空闲或者滚动到屏幕内时才加入子 View、创建页面、开始轮播
+  private boolean mDeferred;
+  private boolean mDeferQueued;
+  private final ViewTreeObserver.OnPreDrawListener mFirstDrawListener =
+      new ViewTreeObserver.OnPreDrawListener() {
+        @Override public boolean onPreDraw() {
+          getViewTreeObserver().removeOnPreDrawListener(this);
+          if (!mDeferQueued) {
+            mDeferQueued = true;
+            Looper.myQueue().addIdleHandler(mDeferIdleHandler);
+          }
+          return true;
+        }
+      };
+  private final Runnable mEnsureInflatedRunnable = new Runnable() {
+    @Override public void run() {
+      ensureInflated();
+    }
+  };
+  private final MessageQueue.IdleHandler mDeferIdleHandler = new MessageQueue.IdleHandler() {
+    @Override public boolean queueIdle() {
+      mDeferQueued = false;
+      if (mAttached) {
+        ensureInflated();
+      }
+      return false;
+    }
+  };
 
   public IndicatorViewPager(Context context) {
     super(context);
+    final long start = System.nanoTime();
+    initAttrs(null);
     initView();
+    mInflateNanos = System.nanoTime() - start;
   }
 
   public IndicatorViewPager(Context context, AttributeSet attrs) {
     super(context, attrs);
+    final long start = System.nanoTime();
     initAttrs(attrs);
     initView();
+    mInflateNanos = System.nanoTime() - start;
   }
 
   public IndicatorViewPager(Context context, AttributeSet attrs, int defStyleAttr) {
     super(context, attrs, defStyleAttr);
+    final long start = System.nanoTime();
     initAttrs(attrs);
     initView();
+    mInflateNanos = System.nanoTime() - start;
   }
 
   protected void initAttrs(AttributeSet attrs) {
-    TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.indicator_viewpager);
-    try {
+    mStyle = IndicatorStyle.obtain(getContext(), attrs);
+    mLayout = mStyle.getLayoutId();
+    mIndicatorOverlay = mStyle.isIndicatorOverlay();
+    mDeferred = mStyle.isDeferInflate();
+    if (mDeferred && mLayout != 0) {
+      Log.w(TAG, "Deferred inflation is not supported with a custom iv_mainLayoutId");
+      mDeferred = false;
+    }
+  }
+
+  private void initView() {
+    final View pager;
+    if (mLayout != 0) {
+      View view = LayoutInflater.from(getContext()).inflate(mLayout, this);
+      pager = view.findViewById(R.id.vp_banner);
+      mIndicator = (CirclePageIndicator) view.findViewById(R.id.pager_indicator);
+    } else {
+      pager = mStyle.getPagerType() == IndicatorStyle.PAGER_RECYCLER_VIEW
+          ? new RecyclerView(getContext()) : new ViewPager(getContext());
+      pager.setId(R.id.vp_banner);
+      mIndicator = new CirclePageIndicator(getContext(), mStyle);
+      mIndicator.setId(R.id.pager_indicator);
+    }
+    if (pager instanceof RecyclerView) {
+      mRecyclerSource = new RecyclerPagerSource((RecyclerView) pager);
+      mPager = mRecyclerSource;
+    } else {
+      mVp_banner = (ViewPager) pager;
+      mPager = new ViewPagerSource(mVp_banner);
+      mMemoryBudget = new PageMemoryBudget(mVp_banner);
+      // RecyclerView 的页面统计由 LoopRecyclerAdapter 在绑定/回收时上报，添加/移除只是滚动进出
+      mVp_banner.setOnHierarchyChangeListener(mPageHierarchyListener);
+    }
+    if (mLayout == 0 && !mDeferred) {
+      addChildViews();
+    }
+
+    if (mLayout != 0) {
+      // 布局里的指示器已经解析过自己的属性，再一次性套用 iv_ 属性
+      mIndicator.applyStyle(mStyle);
+    }
+
+    if (mIndicatorOverlay) {
+      mIndicatorOverlay = false;
+      setIndicatorOverlay(true);
+    }
+  }
+
+  private void addChildViews() {
+    addView(mPager.getView(),
+        new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+    if (!mIndicatorOverlay) {
+      addView(mIndicator, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT,
+          Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL));
+    }
+  }
 
-      // Load defaults from resources
-      final Resources res = getResources();
-      final int defaultPageColor = res.getColor(R.color.default_circle_indicator_page_color);
-      final int defaultFillColor = res.getColor(R.color.default_circle_indicator_fill_color);
-      final int defaultStrokeColor = res.getColor(R.color.default_circle_indicator_stroke_color);
-      final float defaultStrokeWidth =
-          res.getDimension(R.dimen.default_circle_indicator_stroke_width);
-      final float pointMargin = res.getDimension(R.dimen.default_circle_point_margin);
-      final float defaultRadius = res.getDimension(R.dimen.default_circle_indicator_radius);
+  /**
+   * iv_deferInflate 时立即加入 ViewPager 和指示器、创建页面并开始轮播，不再等待主线程空闲或者滚动到屏幕内。
+   * 之前调用的 setAdapter 等方法都已经生效，只是还没有创建页面
+   */
+  public void ensureInflated() {
+    if (!mDeferred) {
+      return;
+    }
+    mDeferred = false;
+    removeCallbacks(mEnsureInflatedRunnable);
+    getViewTreeObserver().removeOnPreDrawListener(mFirstDrawListener);
+    if (mDeferQueued) {
+      mDeferQueued = false;
+      Looper.myQueue().removeIdleHandler(mDeferIdleHandler);
+    }
+    addChildViews();
+    invalidate();
+    updateAutoScroll(nextDwellMillis());
+  }
 
-      mLayout = a.getResourceId(R.styleable.indicator_viewpager_iv_mainLayoutId,
-          R.layout.layout_indicator_viewpager);
+  /**
+   * 是否还在等待创建页面，见 {@link #ensureInflated()}
+   */
+  public boolean isInflationDeferred() {
+    return mDeferred;
+  }
 
-      mFillColor = a.getColor(R.styleable.indicator_viewpager_iv_fillColor, defaultFillColor);
-      mPageColor = a.getColor(R.styleable.indicator_viewpager_iv_pageColor, defaultPageColor);
-      mStrokeColor = a.getColor(R.styleable.indicator_viewpager_iv_strokeColor, defaultStrokeColor);
-      mStrokeWidth =
-          a.getDimension(R.styleable.indicator_viewpager_iv_strokeWidth, defaultStrokeWidth);
-      mPointMargin = a.getDimension(R.styleable.indicator_viewpager_iv_pointMargin, pointMargin);
+  /**
+   * 指示器不作为子 View，而是由 IndicatorViewPager 在 dispatchDraw 里画在 ViewPager 上面：少一个 View，
+   * 滑动时只刷新这一个 View。颜色、半径、间距、位置等属性不变；此模式下点击指示器不会切换页面。
+   * 只支持默认布局，设置了 iv_mainLayoutId 时无效
+   */
+  public void setIndicatorOverlay(boolean overlay) {
+    if (overlay == mIndicatorOverlay) {
+      return;
+    }
+    if (mLayout != 0) {
+      Log.w(TAG, "Indicator overlay is not supported with a custom iv_mainLayoutId");
+      return;
+    }
+    mIndicatorOverlay = overlay;
+    if (overlay) {
+      removeView(mIndicator);
+      mIndicator.setOverlayHost(this);
+    } else {
+      mIndicator.setOverlayHost(null);
+      mIndicator.releaseOverlay();
+      if (mDeferred) {
+        // 创建子 View 时再加入
+        requestLayout();
+        return;
+      }
+      addView(mIndicator, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT,
+          Gravity.BOTTOM | Gravity.CENTER_HORIZONTAL));
+    }
+    requestLayout();
+    invalidate();
+  }
+
+  public boolean isIndicatorOverlay() {
+    return mIndicatorOverlay;
+  }
+
+  /**
+   * 解析后的 iv_ 属性；改过指示器的颜色、半径等之后不会更新
+   */
+  public IndicatorStyle getIndicatorStyle() {
+    return mStyle;
+  }
 
-      mRadius = a.getDimension(R.styleable.indicator_viewpager_iv_radius, defaultRadius);
+  /**
+   * 构造耗时（解析属性、创建 ViewPager 和指示器），纳秒
+   */
+  public long getInflateNanos() {
+    return mInflateNanos;
+  }
 
-      mPaddingBottom =
-          a.getDimension(R.styleable.indicator_viewpager_iv_paddingBottom, defaultRadius);
+  public CirclePageIndicator getIndicator() {
+    return mIndicator;
+  }
 
-      mPaddingSide = a.getDimension(R.styleable.indicator_viewpager_iv_paddingSide, 0);
+  /**
+   * 页面很多时只显示当前页附近的 visibleDotCount 个点，点随页面滚动，-1 表示每页一个点
+   */
+  public void setVisibleDotCount(int visibleDotCount) {
+    mIndicator.setVisibleDotCount(visibleDotCount);
+  }
 
-      mGravity = a.getInteger(R.styleable.indicator_viewpager_iv_gravity, 1);
-    } finally {
-      a.recycle();
+  /**
+   * 统计指示器的绘制耗时、刷新次数、自动切换的延迟以及页面创建/销毁的次数，null 表示关闭（默认）。
+   * 可以使用 {@link HistogramBannerMetrics}
+   */
+  public void setMetrics(BannerMetrics metrics) {
+    mMetrics = metrics;
+    mIndicator.setMetrics(metrics);
+    if (mRecyclerSource != null
+        && mRecyclerSource.getRecyclerView().getAdapter() instanceof LoopRecyclerAdapter) {
+      ((LoopRecyclerAdapter) mRecyclerSource.getRecyclerView().getAdapter()).setMetrics(metrics);
+    }
+    if (metrics != null) {
+      metrics.onBannerInflated(mInflateNanos);
     }
   }
 
-  private void initView() {
-    View view = LayoutInflater.from(getContext()).inflate(mLayout, this);
-    mVp_banner = (ViewPager) view.findViewById(R.id.vp_banner);
-    mIndicator = (CirclePageIndicator) view.findViewById(R.id.pager_indicator);
-
-    mIndicator.setFillColor(mFillColor);
-    mIndicator.setPageColor(mPageColor);
-    mIndicator.setStrokeColor(mStrokeColor);
-    mIndicator.setPointMargin(mPointMargin);
-    mIndicator.setStrokeWidth(mStrokeWidth);
-    mIndicator.setRadius(mRadius);
-
-    if (mGravity == 0) {
-      //左边
-      mIndicator.setPaddingSide((int) -mPaddingSide);
-    } else if (mGravity == 2) {
-      //  右边
-      mIndicator.setPaddingSide((int) mPaddingSide);
-    } else {
-      //  居中
-      mIndicator.setPaddingSide(0);
+  public BannerMetrics getMetrics() {
+    return mMetrics;
+  }
+
+  /**
+   * 添加页面切换监听，可以有多个。events 为 {@link PageIndicator} 里的 EVENT_ 组合，只关心切换结果的监听
+   * 可以只订阅 EVENT_SELECTED / EVENT_SETTLED；scrollSampleFrames 为 n 时每 n 帧才回调一次 onPageScrolled。
+   * 循环模式下回调的 position 是 ViewPager 的位置，真实位置用 {@link #getCurrentItem()}
+   */
+  public void addOnPageChangeListener(ViewPager.OnPageChangeListener listener, int events,
+      int scrollSampleFrames) {
+    mIndicator.addOnPageChangeListener(listener, events, scrollSampleFrames);
+  }
+
+  public void removeOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
+    mIndicator.removeOnPageChangeListener(listener);
+  }
+
+  /**
+   * 自动轮播时，在主线程空闲的时候提前把接下来的 pageCount 个页面以及预计显示的时间告诉 prefetcher。
+   * 实现了 {@link PagePrefetcher} 的适配器在 setAdapter 时自动使用，预取 1 页；null 表示关闭
+   */
+  public void setPagePrefetcher(PagePrefetcher prefetcher, int pageCount) {
+    mPrefetcher = prefetcher;
+    mPrefetchCount = pageCount;
+    mPrefetchedFrom = -1;
+    mAdapterPrefetcher = false;
+  }
+
+  private void setAdapterPrefetcher(Object adapter) {
+    if (adapter instanceof LoopPagerAdapter) {
+      adapter = ((LoopPagerAdapter) adapter).getRealAdapter();
+    } else if (adapter instanceof LoopRecyclerAdapter) {
+      adapter = ((LoopRecyclerAdapter) adapter).getRealAdapter();
+    }
+    if (adapter instanceof PagePrefetcher) {
+      setPagePrefetcher((PagePrefetcher) adapter, Math.max(1, mPrefetchCount));
+      mAdapterPrefetcher = true;
+    } else if (mAdapterPrefetcher) {
+      // 不再使用上一个适配器
+      setPagePrefetcher(null, 0);
     }
-    mIndicator.setPadding(0, (int) mRadius, 0, (int) mPaddingBottom);
+  }
+
+  /**
+   * 当前页左右各保留的页面数，同 {@link ViewPager#setOffscreenPageLimit(int)}，默认 1。
+   * 设置了 {@link #setPageMemoryBudget(long)} 时按预算在 1 和 max(limit, 3) 之间调整。只用于 ViewPager，RecyclerView 见
+   * {@link #setRecycledViewPool(RecyclerView.RecycledViewPool)}
+   */
+  public void setOffscreenPageLimit(int limit) {
+    if (mMemoryBudget == null) {
+      Log.w(TAG, "The offscreen page limit only applies to the ViewPager backend");
+      return;
+    }
+    mMemoryBudget.setRequestedLimit(limit);
+  }
+
+  public int getOffscreenPageLimit() {
+    return mMemoryBudget != null ? mMemoryBudget.getRequestedLimit() : 1;
+  }
+
+  /**
+   * 按内存预算保留页面：预算放得下时左右最多保留 3 页（或者更大的 {@link #setOffscreenPageLimit(int)}），超过 bytes 时减少（最少 1），
+   * -1 表示不限制（默认），{@link #PAGE_MEMORY_BUDGET_AUTO} 表示按设备的 memoryClass 取应用堆内存的 1/8。
+   * 页面内存默认按其中 ImageView 和背景的 Bitmap 计算。系统内存紧张（onTrimMemory）时只保留左右各 1 页，
+   * 并清空适配器的缓存，直到轮播图重新 attach
+   */
+  public void setPageMemoryBudget(long bytes) {
+    setPageMemoryBudget(bytes, null);
+  }
+
+  /**
+   * @param estimator 估算一个页面占用的内存，null 表示使用默认的估算
+   */
+  public void setPageMemoryBudget(long bytes, PageMemoryEstimator estimator) {
+    if (mMemoryBudget == null) {
+      Log.w(TAG, "The page memory budget only applies to the ViewPager backend");
+      return;
+    }
+    mMemoryBudget.setBudget(bytes, estimator);
+  }
+
+  public long getPageMemoryBudget() {
+    return mMemoryBudget != null ? mMemoryBudget.getBudget() : -1;
+  }
+
+  /**
+   * 翻页使用的控件，ViewPager（默认）或者 RecyclerView（iv_pager="recyclerView"）
+   */
+  public PagerSource getPagerSource() {
+    return mPager;
+  }
+
+  /** 翻页控件的滑动状态，由绑定指示器时注册的监听更新 */
+  int getPagerScrollState() {
+    return mPagerScrollState;
+  }
+
+  /**
+   * 使用 RecyclerView 时，同一个列表里的多个轮播图可以共用一个 RecycledViewPool，
+   * 页面在轮播图之间复用（各轮播图的 viewType 要一致）
+   */
+  public void setRecycledViewPool(RecyclerView.RecycledViewPool pool) {
+    checkRecyclerBackend();
+    mRecyclerSource.getRecyclerView().setRecycledViewPool(pool);
+  }
+
+  private ViewPager requireViewPager() {
+    if (mVp_banner == null) {
+      throw new IllegalStateException(
+          "This banner uses a RecyclerView, set a RecyclerView.Adapter instead");
+    }
+    return mVp_banner;
+  }
+
+  private void checkRecyclerBackend() {
+    if (mRecyclerSource == null) {
+      throw new IllegalStateException(
+          "This banner uses a ViewPager, set iv_pager=\"recyclerView\" to use a RecyclerView");
+    }
+  }
+
+  private void bindIndicator() {
+    mIndicator.setPagerSource(mPager);
+    mIndicator.addOnPageChangeListener(mPageChangeListener,
+        PageIndicator.EVENT_SCROLLED | PageIndicator.EVENT_SCROLL_STATE_CHANGED, 1);
   }
 
   public void setAdapter(PagerAdapter adapter) {
-    mVp_banner.setAdapter(adapter);
-    mIndicator.setViewPager(mVp_banner);
+    setAdapterPrefetcher(adapter);
+    releaseLoopAdapter();
+    requireViewPager().setAdapter(adapter);
+    observeAdapter(adapter, null);
+    bindIndicator();
   }
 
-  public void setAdapter(PagerAdapter adapter, int pointCount, final int delayMillis) {
+  /**
+   * 无尽循环：传入真实页数的适配器，内部用 {@link LoopPagerAdapter} 包装，点的个数自动取真实页数
+   *
+   * @param adapter 真实页数的适配器，每次 instantiateItem 都要返回新的页面
+   * @param delayMillis 自动切换的时间，即 {@link AutoScrollPolicy#setDwellMillis(int)}
+   */
+  public void setAdapter(PagerAdapter adapter, int delayMillis) {
+    final LoopPagerAdapter loopAdapter = new LoopPagerAdapter(adapter);
+    setAdapterPrefetcher(adapter);
+    releaseLoopAdapter();
+    requireViewPager().setAdapter(loopAdapter);
+    observeAdapter(loopAdapter, null);
+    mIndicator.setPointCount(-1);
+    bindIndicator();
+    //确保默认的时候处于第一个点
+    mPager.setCurrentItem(loopAdapter.toLoopPosition(0), false);
 
-    mVp_banner.setAdapter(adapter);
+    startAutoScroll(delayMillis);
+  }
+
+  /**
+   * 使用 RecyclerView（iv_pager="recyclerView"）时的适配器，页面的宽高必须是 match_parent。
+   * 内部用不循环的 {@link LoopRecyclerAdapter} 包装，用来统计页面的绑定和回收
+   */
+  public void setAdapter(RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter) {
+    checkRecyclerBackend();
+    final LoopRecyclerAdapter wrapper = new LoopRecyclerAdapter(adapter, false);
+    wrapper.setMetrics(mMetrics);
+    setAdapterPrefetcher(adapter);
+    mRecyclerSource.setAdapter(wrapper);
+    observeAdapter(null, wrapper);
+    bindIndicator();
+  }
+
+  /**
+   * 使用 RecyclerView 时的无尽循环，内部用 {@link LoopRecyclerAdapter} 包装，同
+   * {@link #setAdapter(PagerAdapter, int)}
+   */
+  public void setAdapter(RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter,
+      int delayMillis) {
+    checkRecyclerBackend();
+    final LoopRecyclerAdapter loopAdapter = new LoopRecyclerAdapter(adapter);
+    loopAdapter.setMetrics(mMetrics);
+    setAdapterPrefetcher(adapter);
+    mRecyclerSource.setAdapter(loopAdapter);
+    observeAdapter(null, loopAdapter);
+    mIndicator.setPointCount(-1);
+    bindIndicator();
+    mPager.setCurrentItem(loopAdapter.toLoopPosition(0), false);
+
+    startAutoScroll(delayMillis);
+  }
+
+  /**
+   * @deprecated 适配器需要返回很大的 getCount()，改用 {@link #setAdapter(PagerAdapter, int)}
+   */
+  @Deprecated
+  public void setAdapter(PagerAdapter adapter, int pointCount, final int delayMillis) {
+    setAdapterPrefetcher(adapter);
+    releaseLoopAdapter();
+    requireViewPager().setAdapter(adapter);
+    observeAdapter(adapter, null);
     mIndicator.setPointCount(pointCount);// 无尽循环试，设置点的个数
-    mIndicator.setViewPager(mVp_banner);// 必须先设置适配器
+    bindIndicator();// 必须先设置适配器
     //确保默认的时候处于第一个点
     mVp_banner.setCurrentItem(((adapter.getCount() / 2)/pointCount)*pointCount);
 
+    startAutoScroll(delayMillis);
+  }
+
+  /** 换适配器之前，内部包装的 LoopPagerAdapter 不再监听用户的适配器，否则会一直被它引用 */
+  private void releaseLoopAdapter() {
+    final PagerAdapter current = requireViewPager().getAdapter();
+    if (current instanceof LoopPagerAdapter) {
+      ((LoopPagerAdapter) current).release();
+    }
+  }
+
+  private void observeAdapter(PagerAdapter adapter,
+      RecyclerView.Adapter<?> recyclerAdapter) {
+    if (mObservedAdapter != null) {
+      mObservedAdapter.unregisterDataSetObserver(mAdapterObserver);
+    }
+    if (mObservedRecyclerAdapter != null) {
+      mObservedRecyclerAdapter.unregisterAdapterDataObserver(mRecyclerAdapterObserver);
+    }
+    mObservedAdapter = adapter;
+    mObservedRecyclerAdapter = recyclerAdapter;
+    if (adapter != null) {
+      adapter.registerDataSetObserver(mAdapterObserver);
+    }
+    if (recyclerAdapter != null) {
+      recyclerAdapter.registerAdapterDataObserver(mRecyclerAdapterObserver);
+    }
+  }
+
+  private void postDataSetChanged() {
+    final View pager = mPager.getView();
+    pager.removeCallbacks(mDataSetChangedRunnable);
+    pager.post(mDataSetChangedRunnable);
+  }
+
+  /**
+   * 数据变化之后：停在镜像页上时跳回真实页，指示器只在点数变化时重新布局，重新预取接下来的页面
+   */
+  private void onDataSetChanged() {
+    if (!mPager.hasAdapter()) {
+      return;
+    }
+    final int current = mPager.getCurrentItem();
+    final int snap = mPager.getSnapPosition(current);
+    if (snap != current && mPagerScrollState == ViewPager.SCROLL_STATE_IDLE) {
+      mPager.setCurrentItem(snap, false);
+    }
+    mIndicator.notifyDataSetChanged();
+    mPrefetchedFrom = -1;
+    if (mPrefetcher != null && mAutoScrollRunning && !mPrefetchQueued) {
+      mPrefetchQueued = true;
+      Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+    }
+  }
+
+  private void startAutoScroll(int delayMillis) {
+    mPolicy.setDwellMillis(delayMillis);
     if (mRunnable == null) {
       mRunnable = new Runnable() {
         @Override public void run() {
-          mVp_banner.removeCallbacks(mRunnable);
-          int NEXT = 0;
-          if (mVp_banner.getCurrentItem() != mVp_banner.getAdapter().getCount() - 1) {
-            NEXT = mVp_banner.getCurrentItem() + 1;
-          }
-          if (NEXT == 0) {
-            mVp_banner.setCurrentItem(NEXT, false);
-          } else {
-            mVp_banner.setCurrentItem(NEXT, true);
-          }
-          mVp_banner.postDelayed(this, delayMillis);
+          onAutoScrollTick(SystemClock.uptimeMillis());
         }
       };
     }
-    mVp_banner.postDelayed(mRunnable, delayMillis);
-    mVp_banner.setOnTouchListener(this);
+    applyPolicy();
+    mAutoScrollEnabled = true;
+    cancelTick();
+    mAutoScrollRunning = false;
+    updateAutoScroll(nextDwellMillis());
+    mPager.getView().setOnTouchListener(this);
+  }
+
+  /**
+   * 设置自动轮播的停留时间、触摸后恢复的时间、切换动画的时长以及自适应模式
+   */
+  public void setAutoScrollPolicy(AutoScrollPolicy policy) {
+    mPolicy = policy;
+    applyPolicy();
+    if (mAutoScrollRunning) {
+      cancelTick();
+      scheduleTick(nextDwellMillis());
+    }
+  }
+
+  public AutoScrollPolicy getAutoScrollPolicy() {
+    return mPolicy;
+  }
+
+  private void applyPolicy() {
+    mTransitionDuration = mPolicy.getTransitionDurationMillis();
+    if ((mTransitionDuration >= 0 || mTransitionInterpolator != null || mPolicy.isAdaptive())
+        && mScroller == null
+        && mVp_banner != null) {
+      mScroller = BannerScroller.install(mVp_banner, mTransitionInterpolator != null
+          ? mTransitionInterpolator : BannerScroller.VIEW_PAGER_INTERPOLATOR);
+    }
+  }
+
+  /**
+   * 设置代码切换页面（自动轮播和 {@link #setCurrentItem(int, boolean)}）时的动画时长和插值器。
+   * 时长只作用于代码切换，用户手指滑动后的动画仍使用 ViewPager 自己的时长；插值器只能在创建 Scroller 时指定，
+   * 所以对两者都生效。使用 RecyclerView 时只有时长有效
+   *
+   * @param durationMillis 动画时长，-1 表示使用 ViewPager 默认的时长
+   * @param interpolator 插值器，null 表示使用 ViewPager 默认的插值器
+   */
+  public void setPageTransition(int durationMillis, Interpolator interpolator) {
+    if (interpolator != mTransitionInterpolator && mVp_banner != null) {
+      mTransitionInterpolator = interpolator;
+      mScroller = BannerScroller.install(mVp_banner, interpolator != null
+          ? interpolator : BannerScroller.VIEW_PAGER_INTERPOLATOR);
+    }
+    mPolicy.setTransitionDurationMillis(durationMillis);
+    applyPolicy();
+  }
+
+  /**
+   * 页面之外的 View（比如外层的列表）还在滚动时推迟自动切换，直到停止滚动 150ms 之后
+   */
+  public void setDeferAutoScrollWhileScrolling(boolean defer) {
+    mDeferWhileScrolling = defer;
+  }
+
+  public boolean isDeferAutoScrollWhileScrolling() {
+    return mDeferWhileScrolling;
+  }
+
+  /**
+   * 切换到指定页面，循环模式下 item 为真实页面的位置
+   */
+  public void setCurrentItem(int item, boolean smoothScroll) {
+    final int position = mPager.toLoopPosition(item);
+    if (smoothScroll) {
+      smoothScrollTo(position);
+    } else {
+      mPager.setCurrentItem(position, false);
+    }
+  }
+
+  public int getCurrentItem() {
+    return mPager.toRealPosition(mPager.getCurrentItem());
+  }
+
+  /** 使用 {@link #setPageTransition(int, Interpolator)} 设置的动画切换页面 */
+  private void smoothScrollTo(int position) {
+    if (mRecyclerSource != null) {
+      mRecyclerSource.setTransitionDuration(mTransitionDuration);
+      mRecyclerSource.setCurrentItem(position, true);
+      return;
+    }
+    if (mScroller != null) {
+      mScroller.setFixedDuration(mTransitionDuration);
+    }
+    mVp_banner.setCurrentItem(position, true);
+    if (mScroller != null) {
+      mScroller.setFixedDuration(-1);
+    }
+  }
+
+  /**
+   * 自动切换一页并安排下一次，如果需要等待其他 View 停止滚动则只推迟。下一次的时间是这一次计划的时间加上停留时间，
+   * 主线程卡顿期间错过的多次切换合并成一次，不会连续翻好几页
+   */
+  private void onAutoScrollTick(long now) {
+    if (!mAutoScrollRunning) {
+      return;
+    }
+    mLastTickLatenessMillis = now - mTickScheduledAt;
+    if (mDeferWhileScrolling) {
+      final long idleFor = now - mLastForeignScrollAt;
+      if (idleFor < SCROLL_IDLE_MILLIS) {
+        scheduleTickAt(now + SCROLL_IDLE_MILLIS - idleFor);
+        return;
+      }
+    }
+    if (mMetrics != null) {
+      mMetrics.onAutoAdvance(mLastTickLatenessMillis);
+    }
+    advance();
+    final int dwell = nextDwellMillis();
+    final long next = AutoScrollPolicy.computeNextDeadline(mTickScheduledAt, now, dwell);
+    mCoalescedTickCount += AutoScrollPolicy.countSkippedTicks(mTickScheduledAt, next, dwell);
+    scheduleTickAt(next);
+  }
+
+  /**
+   * 最近一次自动切换比计划晚了多少毫秒（负数表示共用 {@link BannerTicker} 时被提前合并到同一帧），
+   * 可以和主线程卡顿对照
+   */
+  public long getLastTickLatenessMillis() {
+    return mLastTickLatenessMillis;
+  }
+
+  /** 因为主线程卡顿太久而跳过（合并）的自动切换次数 */
+  public long getCoalescedTickCount() {
+    return mCoalescedTickCount;
+  }
+
+  private int nextDwellMillis() {
+    return mPolicy.computeDwellMillis(mPageEngaged);
+  }
+
+  /**
+   * Posts or removes the auto-scroll runnable so that it only runs while the banner is attached,
+   * shown in a visible and focused window, at least partly on screen and not being touched.
+   *
+   * @param delayMillis delay of the first tick if auto-scroll is (re)started by this call
+   */
+  private void updateAutoScroll(int delayMillis) {
+    final boolean shouldRun = mAutoScrollEnabled
+        && mAttached
+        && !mDeferred
+        && !mTouching
+        && mOnScreen
+        && getWindowVisibility() == VISIBLE
+        && hasWindowFocus()
+        && isShown();
+    if (shouldRun == mAutoScrollRunning) {
+      return;
+    }
+    mAutoScrollRunning = shouldRun;
+    cancelTick();
+    if (shouldRun) {
+      scheduleTick(delayMillis);
+    }
+  }
+
+  /**
+   * 多个轮播图共用一个 {@link BannerTicker}：主线程上只保留一条消息，同一时间窗口内到期的切换在同一帧开始。
+   * 默认关闭，每个轮播图各自 postAtTime
+   */
+  public void setUseSharedTicker(boolean useSharedTicker) {
+    if (mUseSharedTicker == useSharedTicker) {
+      return;
+    }
+    cancelTick();
+    mAutoScrollRunning = false;
+    mUseSharedTicker = useSharedTicker;
+    updateAutoScroll(nextDwellMillis());
+  }
+
+  public boolean isUseSharedTicker() {
+    return mUseSharedTicker;
+  }
+
+  /** (重新)开始计时，第一次切换在 delayMillis 之后 */
+  private void scheduleTick(int delayMillis) {
+    scheduleTickAt(SystemClock.uptimeMillis() + delayMillis);
+  }
+
+  /** 安排在 deadline 切换，替换已经安排的那一次，保证只有一个回调在排队 */
+  private void scheduleTickAt(long deadline) {
+    mTickScheduledAt = deadline;
+    if (mPrefetcher != null && !mPrefetchQueued) {
+      mPrefetchQueued = true;
+      Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+    }
+    if (mUseSharedTicker) {
+      BannerTicker.get().schedule(mTickerClient, deadline);
+    } else {
+      mTickHandler.removeCallbacks(mRunnable);
+      mTickHandler.postAtTime(mRunnable, deadline);
+    }
+  }
+
+  private void cancelTick() {
+    if (mUseSharedTicker) {
+      BannerTicker.get().cancel(mTickerClient);
+    } else if (mRunnable != null) {
+      mTickHandler.removeCallbacks(mRunnable);
+    }
+  }
+
+  private void updateOnScreen() {
+    final boolean onScreen = getLocalVisibleRect(mVisibleRect);
+    if (onScreen != mOnScreen) {
+      mOnScreen = onScreen;
+      updateAutoScroll(nextDwellMillis());
+    }
+  }
+
+  @Override protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    mAttached = true;
+    getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+    if (mMemoryBudget != null) {
+      getContext().getApplicationContext().registerComponentCallbacks(mMemoryBudget);
+      mMemoryBudget.resetTrim();
+    }
+    if (mDeferred) {
+      getViewTreeObserver().addOnPreDrawListener(mFirstDrawListener);
+    }
+    updateAutoScroll(nextDwellMillis());
+  }
+
+  @Override protected void onDetachedFromWindow() {
+    getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+    if (mMemoryBudget != null) {
+      getContext().getApplicationContext().unregisterComponentCallbacks(mMemoryBudget);
+      mMemoryBudget.cancelUpdate();
+    }
+    if (mDeferred) {
+      getViewTreeObserver().removeOnPreDrawListener(mFirstDrawListener);
+      if (mDeferQueued) {
+        mDeferQueued = false;
+        Looper.myQueue().removeIdleHandler(mDeferIdleHandler);
+      }
+    }
+    if (mIndicatorOverlay) {
+      mIndicator.releaseOverlay();
+    }
+    mAttached = false;
+    updateAutoScroll(nextDwellMillis());
+    super.onDetachedFromWindow();
+  }
+
+  @Override protected void onWindowVisibilityChanged(int visibility) {
+    super.onWindowVisibilityChanged(visibility);
+    updateAutoScroll(nextDwellMillis());
+  }
+
+  @Override public void onWindowFocusChanged(boolean hasWindowFocus) {
+    super.onWindowFocusChanged(hasWindowFocus);
+    updateAutoScroll(nextDwellMillis());
+  }
+
+  @Override protected void onVisibilityChanged(View changedView, int visibility) {
+    super.onVisibilityChanged(changedView, visibility);
+    if (mPager != null) {
+      updateAutoScroll(nextDwellMillis());
+    }
+  }
+
+  /**
+   * 没有自定义布局时只有 ViewPager 和指示器两个子 View（覆盖绘制模式下只有 ViewPager），直接测量、布局，
+   * 不走 FrameLayout 的通用逻辑
+   */
+  private boolean isFlat() {
+    return mLayout == 0 && getChildCount() == (mIndicatorOverlay ? 1 : 2);
+  }
+
+  @Override protected void dispatchDraw(Canvas canvas) {
+    if (mDeferred) {
+      if (mStyle.getPlaceholderColor() != 0) {
+        canvas.drawColor(mStyle.getPlaceholderColor());
+      }
+      return;
+    }
+    super.dispatchDraw(canvas);
+    if (mIndicatorOverlay) {
+      final int saveCount = canvas.save();
+      canvas.translate(mIndicator.getLeft(), mIndicator.getTop());
+      mIndicator.draw(canvas);
+      canvas.restoreToCount(saveCount);
+    }
+  }
+
+  @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    if (mDeferred) {
+      // 和 ViewPager 填满时的大小一样，创建页面之后不需要重新布局外层
+      setMeasuredDimension(
+          getDefaultSize(getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+          getDefaultSize(getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+      return;
+    }
+    if (!isFlat()) {
+      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+      if (mIndicatorOverlay) {
+        measureIndicator(getMeasuredWidth(), getMeasuredHeight());
+      }
+      return;
+    }
+    final int horizontalPadding = getPaddingLeft() + getPaddingRight();
+    final int verticalPadding = getPaddingTop() + getPaddingBottom();
+    // ViewPager 填满，指示器盖在它的底部
+    final View pager = mPager.getView();
+    pager.measure(
+        getChildMeasureSpec(widthMeasureSpec, horizontalPadding, LayoutParams.MATCH_PARENT),
+        getChildMeasureSpec(heightMeasureSpec, verticalPadding, LayoutParams.MATCH_PARENT));
+    final int width =
+        resolveSize(pager.getMeasuredWidth() + horizontalPadding, widthMeasureSpec);
+    final int height =
+        resolveSize(pager.getMeasuredHeight() + verticalPadding, heightMeasureSpec);
+    setMeasuredDimension(width, height);
+    measureIndicator(width, height);
+  }
+
+  private void measureIndicator(int width, int height) {
+    final int horizontalPadding = getPaddingLeft() + getPaddingRight();
+    final int verticalPadding = getPaddingTop() + getPaddingBottom();
+    mIndicator.measure(
+        MeasureSpec.makeMeasureSpec(Math.max(0, width - horizontalPadding), MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(Math.max(0, height - verticalPadding), MeasureSpec.AT_MOST));
+  }
+
+  @Override protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+    if (mDeferred) {
+      return;
+    }
+    if (isFlat()) {
+      final int childLeft = getPaddingLeft();
+      final int childTop = getPaddingTop();
+      final View pager = mPager.getView();
+      pager.layout(childLeft, childTop, childLeft + pager.getMeasuredWidth(),
+          childTop + pager.getMeasuredHeight());
+      layoutIndicator(bottom - top);
+    } else {
+      super.onLayout(changed, left, top, right, bottom);
+      if (mIndicatorOverlay) {
+        layoutIndicator(bottom - top);
+      }
+    }
+    if (mAttached) {
+      updateOnScreen();
+    }
+  }
+
+  private void layoutIndicator(int height) {
+    final int childLeft = getPaddingLeft();
+    final int childBottom = height - getPaddingBottom();
+    mIndicator.layout(childLeft, childBottom - mIndicator.getMeasuredHeight(),
+        childLeft + mIndicator.getMeasuredWidth(), childBottom);
+  }
+
+  /** ViewPager 位置：自动轮播从 position 切换到的下一页 */
+  private int nextAutoScrollPosition(int position) {
+    position = mPager.getSnapPosition(position);
+    return position != mPager.getCount() - 1 ? position + 1 : 0;
+  }
+
+  private void prefetchUpcoming() {
+    if (mPrefetcher == null || !mAutoScrollRunning || mPager.getCount() <= 1) {
+      return;
+    }
+    int position = nextAutoScrollPosition(mPager.getCurrentItem());
+    if (position == mPrefetchedFrom) {
+      return;
+    }
+    mPrefetchedFrom = position;
+    final int dwell = mPolicy.computeDwellMillis(false);
+    long displayAt = mTickScheduledAt;
+    for (int i = 0; i < mPrefetchCount; i++) {
+      mPrefetcher.onPrefetch(mPager.toRealPosition(position), displayAt);
+      position = nextAutoScrollPosition(position);
+      displayAt += dwell;
+    }
+  }
+
+  private void advance() {
+    int current = mPager.getCurrentItem();
+    // 还停在镜像页上时先跳回真实页
+    final int snap = mPager.getSnapPosition(current);
+    if (snap != current) {
+      mPager.setCurrentItem(snap, false);
+      current = snap;
+    }
+    int NEXT = 0;
+    if (current != mPager.getCount() - 1) {
+      NEXT = current + 1;
+    }
+    mPageEngaged = false;
+    if (NEXT == 0) {
+      mPager.setCurrentItem(NEXT, false);
+    } else {
+      mAutoTransition = true;
+      mLastScrolledAt = 0;
+      mDroppedFrames = 0;
+      smoothScrollTo(NEXT);
+    }
   }
 
   @Override public boolean onTouch(View v, MotionEvent event) {
     switch (event.getAction()) {
       case MotionEvent.ACTION_DOWN:
-        mVp_banner.removeCallbacks(mRunnable);
-        break;
       case MotionEvent.ACTION_MOVE:
-        mVp_banner.removeCallbacks(mRunnable);
+        mTouching = true;
+        mPageEngaged = true;
+        updateAutoScroll(nextDwellMillis());
         break;
 
       case MotionEvent.ACTION_UP:
-        mVp_banner.removeCallbacks(mRunnable);
-        mVp_banner.postDelayed(mRunnable, 2000);
+      case MotionEvent.ACTION_CANCEL:
+        mTouching = false;
+        updateAutoScroll(mPolicy.computeResumeDelayMillis());
         break;
 
       default:
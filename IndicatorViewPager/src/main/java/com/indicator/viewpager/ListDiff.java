@@ -0,0 +1,259 @@
+package com.indicator.viewpager;
+
+import android.support.v7.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Difference between two lists of items matched by key: which old items are kept, where they
+ * move to and whether their contents changed. Matching is linear in the list sizes; the moves are
+ * the items outside the longest run of kept items that is already in order. Computing only reads
+ * the lists, so it can run on a worker thread as long as they are not modified meanwhile.
+ *
+ * 列表差异：按 key 匹配新旧列表，可以在后台线程计算，只分发删除、移动、插入和内容变化
+ */
+public final class ListDiff {
+
+  /** Matches items of the old and the new list, called on the thread the diff is computed on. */
+  public interface ItemCallback<T> {
+    /** Identifies an item across lists, e.g. its id. Of items with equal keys the first counts. */
+    Object getKey(T item);
+
+    /** Whether the page bound to {@code oldItem} shows {@code newItem} without binding it again. */
+    boolean areContentsTheSame(T oldItem, T newItem);
+  }
+
+  /** Receives the updates, with the same position semantics as RecyclerView's notifyItem*. */
+  public interface UpdateCallback {
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    void onInserted(int position, int count);
+
+    void onChanged(int position, int count);
+  }
+
+  /** New position of each old item, -1 if it was removed. */
+  private final int[] mNewPositions;
+  /** Old position of each new item, -1 if it was inserted. */
+  private final int[] mOldPositions;
+  /** By old position, whether a kept item's contents changed. */
+  private final boolean[] mChanged;
+
+  private ListDiff(int[] newPositions, int[] oldPositions, boolean[] changed) {
+    mNewPositions = newPositions;
+    mOldPositions = oldPositions;
+    mChanged = changed;
+  }
+
+  public static <T> ListDiff compute(List<? extends T> oldList, List<? extends T> newList,
+      ItemCallback<? super T> callback) {
+    final int oldSize = oldList.size();
+    final int newSize = newList.size();
+    final HashMap<Object, Integer> oldPositionByKey = new HashMap<>(oldSize * 2);
+    for (int i = 0; i < oldSize; i++) {
+      final Object key = callback.getKey(oldList.get(i));
+      if (!oldPositionByKey.containsKey(key)) {
+        oldPositionByKey.put(key, i);
+      }
+    }
+
+    final int[] newPositions = new int[oldSize];
+    Arrays.fill(newPositions, -1);
+    final int[] oldPositions = new int[newSize];
+    final boolean[] changed = new boolean[oldSize];
+    for (int i = 0; i < newSize; i++) {
+      final T newItem = newList.get(i);
+      // Removed from the map, so a second new item with the same key counts as inserted
+      final Integer oldPosition = oldPositionByKey.remove(callback.getKey(newItem));
+      if (oldPosition == null) {
+        oldPositions[i] = -1;
+        continue;
+      }
+      oldPositions[i] = oldPosition;
+      newPositions[oldPosition] = i;
+      changed[oldPosition] = !callback.areContentsTheSame(oldList.get(oldPosition), newItem);
+    }
+    return new ListDiff(newPositions, oldPositions, changed);
+  }
+
+  public int getOldSize() {
+    return mNewPositions.length;
+  }
+
+  public int getNewSize() {
+    return mOldPositions.length;
+  }
+
+  /** Position of an old item in the new list, -1 if it was removed. */
+  public int getNewPosition(int oldPosition) {
+    return mNewPositions[oldPosition];
+  }
+
+  /** Position of a new item in the old list, -1 if it was inserted. */
+  public int getOldPosition(int newPosition) {
+    return mOldPositions[newPosition];
+  }
+
+  /** Whether the contents of a kept old item changed. */
+  public boolean isChanged(int oldPosition) {
+    return mChanged[oldPosition];
+  }
+
+  /** Whether anything was removed, inserted, moved or changed. */
+  public boolean hasUpdates() {
+    if (mNewPositions.length != mOldPositions.length) {
+      return true;
+    }
+    for (int i = 0; i < mNewPositions.length; i++) {
+      if (mNewPositions[i] != i || mChanged[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Dispatches the removals (back to front), then the moves, then the insertions (front to back)
+   * and last the changes at their new positions, consecutive positions merged into ranges.
+   */
+  public void dispatchUpdatesTo(UpdateCallback callback) {
+    final int oldSize = mNewPositions.length;
+    final int newSize = mOldPositions.length;
+
+    int removedEnd = -1;
+    for (int i = oldSize - 1; i >= 0; i--) {
+      if (mNewPositions[i] == -1) {
+        if (removedEnd == -1) {
+          removedEnd = i + 1;
+        }
+      } else if (removedEnd != -1) {
+        callback.onRemoved(i + 1, removedEnd - i - 1);
+        removedEnd = -1;
+      }
+    }
+    if (removedEnd != -1) {
+      callback.onRemoved(0, removedEnd);
+    }
+
+    dispatchMoves(callback);
+
+    int insertedStart = -1;
+    for (int i = 0; i <= newSize; i++) {
+      if (i < newSize && mOldPositions[i] == -1) {
+        if (insertedStart == -1) {
+          insertedStart = i;
+        }
+      } else if (insertedStart != -1) {
+        callback.onInserted(insertedStart, i - insertedStart);
+        insertedStart = -1;
+      }
+    }
+
+    int changedStart = -1;
+    for (int i = 0; i <= newSize; i++) {
+      if (i < newSize && mOldPositions[i] != -1 && mChanged[mOldPositions[i]]) {
+        if (changedStart == -1) {
+          changedStart = i;
+        }
+      } else if (changedStart != -1) {
+        callback.onChanged(changedStart, i - changedStart);
+        changedStart = -1;
+      }
+    }
+  }
+
+  /** Dispatches the updates to {@code adapter}, after its items were replaced by the new list. */
+  public void dispatchUpdatesTo(final RecyclerView.Adapter<?> adapter) {
+    dispatchUpdatesTo(new UpdateCallback() {
+      @Override public void onRemoved(int position, int count) {
+        adapter.notifyItemRangeRemoved(position, count);
+      }
+
+      @Override public void onMoved(int fromPosition, int toPosition) {
+        adapter.notifyItemMoved(fromPosition, toPosition);
+      }
+
+      @Override public void onInserted(int position, int count) {
+        adapter.notifyItemRangeInserted(position, count);
+      }
+
+      @Override public void onChanged(int position, int count) {
+        adapter.notifyItemRangeChanged(position, count);
+      }
+    });
+  }
+
+  /**
+   * Puts the kept items in new order. Items of the longest increasing run of new positions stay,
+   * every other item is moved right behind the kept item that precedes it in the new list.
+   */
+  private void dispatchMoves(UpdateCallback callback) {
+    final ArrayList<Integer> kept = new ArrayList<>(mNewPositions.length);
+    for (int newPosition : mNewPositions) {
+      if (newPosition != -1) {
+        kept.add(newPosition);
+      }
+    }
+    final boolean[] inOrder = longestIncreasingRun(kept);
+    final boolean[] staysByNewPosition = new boolean[mOldPositions.length];
+    for (int i = 0, size = kept.size(); i < size; i++) {
+      staysByNewPosition[kept.get(i)] = inOrder[i];
+    }
+
+    int previous = -1;
+    for (int newPosition = 0; newPosition < mOldPositions.length; newPosition++) {
+      if (mOldPositions[newPosition] == -1) {
+        continue;
+      }
+      if (!staysByNewPosition[newPosition]) {
+        final int from = kept.indexOf(newPosition);
+        int to = 0;
+        if (previous != -1) {
+          final int previousIndex = kept.indexOf(previous);
+          to = from < previousIndex ? previousIndex : previousIndex + 1;
+        }
+        if (from != to) {
+          kept.add(to, kept.remove(from));
+          callback.onMoved(from, to);
+        }
+      }
+      previous = newPosition;
+    }
+  }
+
+  /** Marks one longest strictly increasing subsequence of {@code values}. */
+  private static boolean[] longestIncreasingRun(List<Integer> values) {
+    final int size = values.size();
+    // Index of the smallest last value of a run of each length, and the run's previous index
+    final int[] tails = new int[size];
+    final int[] previous = new int[size];
+    int length = 0;
+    for (int i = 0; i < size; i++) {
+      final int value = values.get(i);
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (values.get(tails[mid]) < value) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      previous[i] = low > 0 ? tails[low - 1] : -1;
+      tails[low] = i;
+      if (low == length) {
+        length++;
+      }
+    }
+    final boolean[] inRun = new boolean[size];
+    for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+      inRun[i] = true;
+    }
+    return inRun;
+  }
+}
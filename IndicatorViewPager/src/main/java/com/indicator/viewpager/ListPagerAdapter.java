@@ -0,0 +1,133 @@
+package com.indicator.viewpager;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link RecyclingPagerAdapter} over a list of items that is replaced as a whole, e.g. when the
+ * banners are refreshed from a server. {@link #submitList(List)} computes a {@link ListDiff}
+ * against the current items on a background executor and applies it on the main thread: pages of
+ * kept items keep their views and only move, pages whose contents changed are bound again in
+ * place, and only pages of removed items are destroyed. Works wrapped by {@link LoopPagerAdapter}.
+ *
+ * 列表适配器：submitList 在后台计算差异，没有变化的页面保留原来的 View，不会全部销毁重建
+ */
+public abstract class ListPagerAdapter<T> extends RecyclingPagerAdapter
+    implements ListDiff.ItemCallback<T> {
+
+  private List<T> mItems;
+  private Executor mExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  /** Incremented by every submit, a diff that finishes after a newer submit is dropped. */
+  private int mGeneration;
+  /** Instantiated pages, tagged with the position of their item or POSITION_NONE. */
+  private final ArrayList<View> mPages = new ArrayList<>();
+
+  public ListPagerAdapter(List<? extends T> items) {
+    mItems = Collections.unmodifiableList(new ArrayList<T>(items));
+  }
+
+  /** Executor the diffs are computed on, {@link AsyncTask#THREAD_POOL_EXECUTOR} by default. */
+  public void setExecutor(Executor executor) {
+    mExecutor = executor;
+  }
+
+  public T getItem(int position) {
+    return mItems.get(position);
+  }
+
+  /** The current items, the new ones only once a submitted list has been applied. */
+  public List<T> getItems() {
+    return mItems;
+  }
+
+  @Override public int getCount() {
+    return mItems.size();
+  }
+
+  /**
+   * {@link Object#equals(Object)} by default, override to compare only what the page shows.
+   * Called on the executor, see {@link #setExecutor(Executor)}, as is {@link #getKey(Object)}.
+   */
+  @Override public boolean areContentsTheSame(T oldItem, T newItem) {
+    return oldItem.equals(newItem);
+  }
+
+  /**
+   * Replaces the items. The list is copied, the diff is computed in the background and applied
+   * with a single notifyDataSetChanged on the main thread. Of lists submitted in a row only the
+   * last one is applied. Call on the main thread.
+   */
+  public void submitList(List<? extends T> items) {
+    final List<T> oldItems = mItems;
+    final List<T> newItems = Collections.unmodifiableList(new ArrayList<T>(items));
+    final int generation = ++mGeneration;
+    mExecutor.execute(new Runnable() {
+      @Override public void run() {
+        final ListDiff diff = ListDiff.compute(oldItems, newItems, ListPagerAdapter.this);
+        mHandler.post(new Runnable() {
+          @Override public void run() {
+            // Only the latest submit is applied, so mItems is still oldItems
+            if (generation == mGeneration) {
+              applyDiff(newItems, diff);
+            }
+          }
+        });
+      }
+    });
+  }
+
+  private void applyDiff(List<T> items, ListDiff diff) {
+    mItems = items;
+    if (!diff.hasUpdates()) {
+      return;
+    }
+    for (int i = 0, size = mPages.size(); i < size; i++) {
+      final View page = mPages.get(i);
+      final int oldPosition = (Integer) page.getTag(R.id.iv_item_position);
+      if (oldPosition < 0) {
+        // Removed by an earlier diff, the pager has not destroyed it yet
+        continue;
+      }
+      int newPosition = diff.getNewPosition(oldPosition);
+      if (newPosition >= 0 && diff.isChanged(oldPosition)) {
+        if ((Integer) page.getTag(R.id.iv_view_type) == getItemViewType(newPosition)) {
+          onBindView(page, newPosition);
+        } else {
+          newPosition = POSITION_NONE;
+        }
+      }
+      page.setTag(R.id.iv_item_position, newPosition >= 0 ? newPosition : POSITION_NONE);
+    }
+    notifyDataSetChanged();
+  }
+
+  @Override public Object instantiateItem(ViewGroup container, int position) {
+    final View page = (View) super.instantiateItem(container, position);
+    page.setTag(R.id.iv_item_position, position);
+    mPages.add(page);
+    return page;
+  }
+
+  @Override public void destroyItem(ViewGroup container, int position, Object object) {
+    mPages.remove(object);
+    ((View) object).setTag(R.id.iv_item_position, null);
+    super.destroyItem(container, position, object);
+  }
+
+  /**
+   * The position the page's item moved to, or POSITION_NONE if it was removed or has to be
+   * created again, so the pager keeps and moves the other pages.
+   */
+  @Override public int getItemPosition(Object object) {
+    final Object position = ((View) object).getTag(R.id.iv_item_position);
+    return position != null ? (Integer) position : POSITION_NONE;
+  }
+}
@@ -0,0 +1,183 @@
+package com.indicator.viewpager;
+
+import android.database.DataSetObserver;
+import android.os.Parcelable;
+import android.support.v4.view.PagerAdapter;
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.IdentityHashMap;
+
+/**
+ * Wraps a {@link PagerAdapter} of N real pages into N + 2 positions for infinite looping.
+ * Position 0 mirrors the last real page and position N + 1 mirrors the first one; once a scroll
+ * onto a mirror settles the pager is moved to the real page without animation, see
+ * {@link #getSnapPosition(int)}. Adapters with fewer than two pages are passed through as is.
+ * {@link #getItemPosition(Object)} keeps a mirror page only while it still mirrors the same item.
+ *
+ * 真实页面会被实例化两次（镜像页），所以被包装的适配器每次 instantiateItem 都必须返回新的页面对象
+ */
+public class LoopPagerAdapter extends PagerAdapter {
+
+  private final PagerAdapter mAdapter;
+  /** Instantiated mirror pages, true for the one at position 0. */
+  private final IdentityHashMap<Object, Boolean> mMirrors = new IdentityHashMap<>();
+  private boolean mReleased;
+
+  private final DataSetObserver mObserver = new DataSetObserver() {
+    @Override public void onChanged() {
+      notifyDataSetChanged();
+    }
+  };
+
+  public LoopPagerAdapter(PagerAdapter adapter) {
+    mAdapter = adapter;
+    mAdapter.registerDataSetObserver(mObserver);
+  }
+
+  /**
+   * Stops listening to the wrapped adapter. Call once the pager no longer uses this wrapper,
+   * otherwise the wrapped adapter keeps it, and through it the pager, reachable.
+   */
+  public void release() {
+    if (!mReleased) {
+      mReleased = true;
+      mAdapter.unregisterDataSetObserver(mObserver);
+    }
+  }
+
+  public PagerAdapter getRealAdapter() {
+    return mAdapter;
+  }
+
+  public int getRealCount() {
+    return mAdapter.getCount();
+  }
+
+  public boolean isLooping() {
+    return mAdapter.getCount() > 1;
+  }
+
+  /**
+   * Maps a pager position to the position in the wrapped adapter.
+   */
+  public int toRealPosition(int position) {
+    return toRealPosition(position, mAdapter.getCount());
+  }
+
+  /**
+   * Maps a position in the wrapped adapter to its (non-mirror) pager position.
+   */
+  public int toLoopPosition(int realPosition) {
+    return toLoopPosition(realPosition, mAdapter.getCount());
+  }
+
+  /**
+   * Returns the real page position that shows the same content as {@code position}, or
+   * {@code position} itself when it is not a mirror.
+   */
+  public int getSnapPosition(int position) {
+    return getSnapPosition(position, mAdapter.getCount());
+  }
+
+  @Override public int getCount() {
+    return getLoopCount(mAdapter.getCount());
+  }
+
+  // The mapping, shared with LoopRecyclerAdapter
+
+  static int getLoopCount(int realCount) {
+    return realCount > 1 ? realCount + 2 : realCount;
+  }
+
+  static int toRealPosition(int position, int realCount) {
+    if (realCount <= 1) {
+      return position;
+    }
+    return (position - 1 + realCount) % realCount;
+  }
+
+  static int toLoopPosition(int realPosition, int realCount) {
+    return realCount > 1 ? realPosition + 1 : realPosition;
+  }
+
+  static int getSnapPosition(int position, int realCount) {
+    if (realCount <= 1) {
+      return position;
+    }
+    if (position == 0) {
+      return realCount;
+    }
+    if (position == realCount + 1) {
+      return 1;
+    }
+    return position;
+  }
+
+  @Override public void startUpdate(ViewGroup container) {
+    mAdapter.startUpdate(container);
+  }
+
+  @Override public Object instantiateItem(ViewGroup container, int position) {
+    final Object object = mAdapter.instantiateItem(container, toRealPosition(position));
+    if (isLooping() && getSnapPosition(position) != position) {
+      mMirrors.put(object, position == 0);
+    }
+    return object;
+  }
+
+  @Override public void destroyItem(ViewGroup container, int position, Object object) {
+    mMirrors.remove(object);
+    mAdapter.destroyItem(container, toRealPosition(position), object);
+  }
+
+  @Override public void setPrimaryItem(ViewGroup container, int position, Object object) {
+    mAdapter.setPrimaryItem(container, toRealPosition(position), object);
+  }
+
+  @Override public void finishUpdate(ViewGroup container) {
+    mAdapter.finishUpdate(container);
+  }
+
+  @Override public boolean isViewFromObject(View view, Object object) {
+    return mAdapter.isViewFromObject(view, object);
+  }
+
+  /**
+   * Maps the position of the wrapped adapter. A mirror page stays a mirror: it is kept if its
+   * item is still the last (position 0) or the first real page, otherwise it is recreated.
+   */
+  @Override public int getItemPosition(Object object) {
+    final int position = mAdapter.getItemPosition(object);
+    if (position < 0) {
+      return position;
+    }
+    final Boolean head = mMirrors.get(object);
+    if (head == null) {
+      return toLoopPosition(position);
+    }
+    final int realCount = mAdapter.getCount();
+    if (realCount <= 1) {
+      return POSITION_NONE;
+    }
+    if (head) {
+      return position == realCount - 1 ? 0 : POSITION_NONE;
+    }
+    return position == 0 ? realCount + 1 : POSITION_NONE;
+  }
+
+  @Override public Parcelable saveState() {
+    return mAdapter.saveState();
+  }
+
+  @Override public void restoreState(Parcelable state, ClassLoader loader) {
+    mAdapter.restoreState(state, loader);
+  }
+
+  @Override public CharSequence getPageTitle(int position) {
+    return mAdapter.getPageTitle(toRealPosition(position));
+  }
+
+  @Override public float getPageWidth(int position) {
+    return mAdapter.getPageWidth(toRealPosition(position));
+  }
+}
@@ -0,0 +1,247 @@
+package com.indicator.viewpager;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+/**
+ * Wraps a RecyclerView adapter of N real pages into N + 2 positions for infinite looping, with
+ * the same mirror positions as {@link LoopPagerAdapter}. Mirror positions are bound into
+ * recycled view holders like any other, so unlike with LoopPagerAdapter the wrapped adapter does
+ * not need to create a new view for each of them. Range updates of the wrapped adapter are
+ * forwarded as range updates, so views of unchanged items are not bound again. Stable ids are
+ * forwarded too, a mirror's id is its item's id with the top bit flipped, so the wrapped ids must
+ * not use that bit.
+ *
+ * 循环用的 RecyclerView 适配器，和 LoopPagerAdapter 一样首尾各加一个镜像页
+ */
+public class LoopRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+  private final RecyclerView.Adapter<RecyclerView.ViewHolder> mAdapter;
+  private final boolean mLooping;
+  private BannerMetrics mMetrics;
+
+  /** Real item count as of the last notification, to map ranges against the old count. */
+  private int mRealCount;
+  private boolean mReleased;
+
+  /**
+   * Forwards range updates at their loop positions and updates the mirrors whose item changed;
+   * only updates that start or stop the looping notify a full change.
+   */
+  private final RecyclerView.AdapterDataObserver mObserver =
+      new RecyclerView.AdapterDataObserver() {
+        @Override public void onChanged() {
+          mRealCount = mAdapter.getItemCount();
+          notifyDataSetChanged();
+        }
+
+        @Override public void onItemRangeChanged(int positionStart, int itemCount) {
+          final int realCount = mAdapter.getItemCount();
+          if (realCount != mRealCount || realCount <= 1) {
+            onChanged();
+            return;
+          }
+          notifyItemRangeChanged(toLoopPosition(positionStart), itemCount);
+          notifyMirrorsChanged(positionStart == 0,
+              positionStart + itemCount == realCount);
+        }
+
+        @Override public void onItemRangeInserted(int positionStart, int itemCount) {
+          final int realCount = mAdapter.getItemCount();
+          if (mRealCount <= 1 || realCount <= 1) {
+            onChanged();
+            return;
+          }
+          mRealCount = realCount;
+          notifyItemRangeInserted(toLoopPosition(positionStart), itemCount);
+          notifyMirrorsChanged(positionStart == 0, positionStart + itemCount == realCount);
+        }
+
+        @Override public void onItemRangeRemoved(int positionStart, int itemCount) {
+          final int realCount = mAdapter.getItemCount();
+          if (mRealCount <= 1 || realCount <= 1) {
+            onChanged();
+            return;
+          }
+          mRealCount = realCount;
+          notifyItemRangeRemoved(toLoopPosition(positionStart), itemCount);
+          notifyMirrorsChanged(positionStart == 0, positionStart == realCount);
+        }
+
+        @Override public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+          final int realCount = mAdapter.getItemCount();
+          if (itemCount != 1 || realCount != mRealCount || realCount <= 1) {
+            onChanged();
+            return;
+          }
+          notifyItemMoved(toLoopPosition(fromPosition), toLoopPosition(toPosition));
+          final int last = realCount - 1;
+          notifyMirrorsChanged(fromPosition == 0 || toPosition == 0,
+              fromPosition == last || toPosition == last);
+        }
+      };
+
+  /** Forwards the updates as they are, when not looping. */
+  private final RecyclerView.AdapterDataObserver mForwardingObserver =
+      new RecyclerView.AdapterDataObserver() {
+        @Override public void onChanged() {
+          notifyDataSetChanged();
+        }
+
+        @Override public void onItemRangeChanged(int positionStart, int itemCount) {
+          notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override public void onItemRangeInserted(int positionStart, int itemCount) {
+          notifyItemRangeInserted(positionStart, itemCount);
+        }
+
+        @Override public void onItemRangeRemoved(int positionStart, int itemCount) {
+          notifyItemRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+          // RecyclerView only moves single items
+          notifyItemMoved(fromPosition, toPosition);
+        }
+      };
+
+  /** The tail mirror shows the first real item, the head mirror (position 0) the last one. */
+  private void notifyMirrorsChanged(boolean firstChanged, boolean lastChanged) {
+    if (lastChanged) {
+      notifyItemChanged(0);
+    }
+    if (firstChanged) {
+      notifyItemChanged(getItemCount() - 1);
+    }
+  }
+
+  public LoopRecyclerAdapter(RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter) {
+    this(adapter, true);
+  }
+
+  /**
+   * @param looping false maps positions one to one, the wrapper then only reports binds and
+   *     recycles to the {@link #setMetrics(BannerMetrics) metrics}
+   */
+  @SuppressWarnings("unchecked")
+  LoopRecyclerAdapter(RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter,
+      boolean looping) {
+    mAdapter = (RecyclerView.Adapter<RecyclerView.ViewHolder>) adapter;
+    mLooping = looping;
+    mRealCount = mAdapter.getItemCount();
+    // Before anyone observes this adapter, after that it can no longer be changed
+    setHasStableIds(mAdapter.hasStableIds());
+    mAdapter.registerAdapterDataObserver(getRealObserver());
+  }
+
+  private RecyclerView.AdapterDataObserver getRealObserver() {
+    return mLooping ? mObserver : mForwardingObserver;
+  }
+
+  /** Reports a page bound as instantiated and a recycled one as destroyed, null for none. */
+  void setMetrics(BannerMetrics metrics) {
+    mMetrics = metrics;
+  }
+
+  /**
+   * Stops listening to the wrapped adapter. Call once the RecyclerView no longer uses this
+   * wrapper, otherwise the wrapped adapter keeps it reachable, see
+   * {@link LoopPagerAdapter#release()}.
+   */
+  public void release() {
+    if (!mReleased) {
+      mReleased = true;
+      mAdapter.unregisterAdapterDataObserver(getRealObserver());
+    }
+  }
+
+  public RecyclerView.Adapter<? extends RecyclerView.ViewHolder> getRealAdapter() {
+    return mAdapter;
+  }
+
+  public int getRealCount() {
+    return mAdapter.getItemCount();
+  }
+
+  public boolean isLooping() {
+    return mLooping && mAdapter.getItemCount() > 1;
+  }
+
+  public int toRealPosition(int position) {
+    if (!mLooping) {
+      return position;
+    }
+    return LoopPagerAdapter.toRealPosition(position, mAdapter.getItemCount());
+  }
+
+  public int toLoopPosition(int realPosition) {
+    if (!mLooping) {
+      return realPosition;
+    }
+    return LoopPagerAdapter.toLoopPosition(realPosition, mAdapter.getItemCount());
+  }
+
+  public int getSnapPosition(int position) {
+    if (!mLooping) {
+      return position;
+    }
+    return LoopPagerAdapter.getSnapPosition(position, mAdapter.getItemCount());
+  }
+
+  @Override public int getItemCount() {
+    final int realCount = mAdapter.getItemCount();
+    return mLooping ? LoopPagerAdapter.getLoopCount(realCount) : realCount;
+  }
+
+  @Override public int getItemViewType(int position) {
+    return mAdapter.getItemViewType(toRealPosition(position));
+  }
+
+  /** The wrapped adapter's id, with the top bit flipped for the mirror positions. */
+  @Override public long getItemId(int position) {
+    final long id = mAdapter.getItemId(toRealPosition(position));
+    if (id == RecyclerView.NO_ID || getSnapPosition(position) == position) {
+      return id;
+    }
+    return id ^ Long.MIN_VALUE;
+  }
+
+  @Override public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    return mAdapter.onCreateViewHolder(parent, viewType);
+  }
+
+  @Override public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+    mAdapter.onBindViewHolder(holder, toRealPosition(position));
+    if (mMetrics != null) {
+      mMetrics.onPageInstantiated();
+    }
+  }
+
+  @Override public void onViewRecycled(RecyclerView.ViewHolder holder) {
+    mAdapter.onViewRecycled(holder);
+    if (mMetrics != null) {
+      mMetrics.onPageDestroyed();
+    }
+  }
+
+  @Override public boolean onFailedToRecycleView(RecyclerView.ViewHolder holder) {
+    return mAdapter.onFailedToRecycleView(holder);
+  }
+
+  @Override public void onViewAttachedToWindow(RecyclerView.ViewHolder holder) {
+    mAdapter.onViewAttachedToWindow(holder);
+  }
+
+  @Override public void onViewDetachedFromWindow(RecyclerView.ViewHolder holder) {
+    mAdapter.onViewDetachedFromWindow(holder);
+  }
+
+  @Override public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+    mAdapter.onAttachedToRecyclerView(recyclerView);
+  }
+
+  @Override public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+    mAdapter.onDetachedFromRecyclerView(recyclerView);
+  }
+}
@@ -0,0 +1,123 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.ViewPager;
+
+/**
+ * Fans page changes out to listeners added with
+ * {@link PageIndicator#addOnPageChangeListener(ViewPager.OnPageChangeListener, int, int)}.
+ * The listener array is copied on add and remove only, dispatching never allocates, and a
+ * listener may remove itself or others from its callback.
+ */
+final class PageChangeDispatcher implements ViewPager.OnPageChangeListener {
+
+  private static final class Entry {
+    final ViewPager.OnPageChangeListener listener;
+    final int events;
+    final int sampleFrames;
+    int framesUntilSample;
+    boolean scrollPending;
+
+    Entry(ViewPager.OnPageChangeListener listener, int events, int sampleFrames) {
+      this.listener = listener;
+      this.events = events;
+      this.sampleFrames = sampleFrames;
+    }
+  }
+
+  private static final Entry[] EMPTY = new Entry[0];
+
+  private Entry[] mEntries = EMPTY;
+
+  private int mLastPosition;
+  private float mLastPositionOffset;
+  private int mLastPositionOffsetPixels;
+
+  void add(ViewPager.OnPageChangeListener listener, int events, int scrollSampleFrames) {
+    final Entry entry = new Entry(listener, events, Math.max(1, scrollSampleFrames));
+    final Entry[] entries = mEntries;
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i].listener == listener) {
+        final Entry[] copy = entries.clone();
+        copy[i] = entry;
+        mEntries = copy;
+        return;
+      }
+    }
+    final Entry[] copy = new Entry[entries.length + 1];
+    System.arraycopy(entries, 0, copy, 0, entries.length);
+    copy[entries.length] = entry;
+    mEntries = copy;
+  }
+
+  void remove(ViewPager.OnPageChangeListener listener) {
+    final Entry[] entries = mEntries;
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i].listener == listener) {
+        if (entries.length == 1) {
+          mEntries = EMPTY;
+          return;
+        }
+        final Entry[] copy = new Entry[entries.length - 1];
+        System.arraycopy(entries, 0, copy, 0, i);
+        System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+        mEntries = copy;
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
+    mLastPosition = position;
+    mLastPositionOffset = positionOffset;
+    mLastPositionOffsetPixels = positionOffsetPixels;
+    final Entry[] entries = mEntries;
+    for (int i = 0; i < entries.length; i++) {
+      final Entry entry = entries[i];
+      if ((entry.events & PageIndicator.EVENT_SCROLLED) == 0) {
+        continue;
+      }
+      if (entry.sampleFrames > 1) {
+        if (entry.framesUntilSample > 0) {
+          entry.framesUntilSample--;
+          entry.scrollPending = true;
+          continue;
+        }
+        entry.framesUntilSample = entry.sampleFrames - 1;
+        entry.scrollPending = false;
+      }
+      entry.listener.onPageScrolled(position, positionOffset, positionOffsetPixels);
+    }
+  }
+
+  @Override public void onPageSelected(int position) {
+    final Entry[] entries = mEntries;
+    for (int i = 0; i < entries.length; i++) {
+      final Entry entry = entries[i];
+      if ((entry.events & PageIndicator.EVENT_SELECTED) != 0) {
+        entry.listener.onPageSelected(position);
+      }
+    }
+  }
+
+  @Override public void onPageScrollStateChanged(int state) {
+    final boolean settled = state == ViewPager.SCROLL_STATE_IDLE;
+    final Entry[] entries = mEntries;
+    for (int i = 0; i < entries.length; i++) {
+      final Entry entry = entries[i];
+      if (settled) {
+        // Sampled listeners still see where the scroll ended, and the next scroll's first frame
+        entry.framesUntilSample = 0;
+        if (entry.scrollPending) {
+          entry.scrollPending = false;
+          entry.listener.onPageScrolled(mLastPosition, mLastPositionOffset,
+              mLastPositionOffsetPixels);
+        }
+      }
+      if ((entry.events & PageIndicator.EVENT_SCROLL_STATE_CHANGED) != 0
+          || (settled && (entry.events & PageIndicator.EVENT_SETTLED) != 0)) {
+        entry.listener.onPageScrollStateChanged(state);
+      }
+    }
+  }
+}
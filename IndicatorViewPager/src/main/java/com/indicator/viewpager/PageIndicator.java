@@ -24,6 +24,16 @@ import android.support.v4.view.ViewPager;
  * number and the current visible com.xmchoice.yyxsjcontrol.view.
  */
 public interface PageIndicator extends ViewPager.OnPageChangeListener {
+    /** {@link ViewPager.OnPageChangeListener#onPageScrolled}, possibly sampled. */
+    int EVENT_SCROLLED = 1;
+    /** {@link ViewPager.OnPageChangeListener#onPageSelected}. */
+    int EVENT_SELECTED = 1 << 1;
+    /** Every {@link ViewPager.OnPageChangeListener#onPageScrollStateChanged}. */
+    int EVENT_SCROLL_STATE_CHANGED = 1 << 2;
+    /** Only {@link ViewPager.OnPageChangeListener#onPageScrollStateChanged} to idle. */
+    int EVENT_SETTLED = 1 << 3;
+    int EVENT_ALL = EVENT_SCROLLED | EVENT_SELECTED | EVENT_SCROLL_STATE_CHANGED;
+
     /**
      * Bind the indicator to a ViewPager.
      *
@@ -38,6 +48,11 @@ public interface PageIndicator extends ViewPager.OnPageChangeListener {
      * @param initialPosition
      */
     void setViewPager(ViewPager view, int initialPosition);
+
+    /**
+     * Bind the indicator to any pager, e.g. a {@link RecyclerPagerSource}.
+     */
+    void setPagerSource(PagerSource source);
     
     /**
      * 
@@ -62,6 +77,18 @@ public interface PageIndicator extends ViewPager.OnPageChangeListener {
      */
     void setOnPageChangeListener(ViewPager.OnPageChangeListener listener);
 
+    /**
+     * Adds a listener that only receives the {@code events} it asks for. With
+     * {@code scrollSampleFrames} n > 1 it receives every n-th onPageScrolled, plus the last one
+     * before the pager settles. Adding a listener again replaces its events and sampling.
+     *
+     * @param events a combination of the EVENT_ constants
+     */
+    void addOnPageChangeListener(ViewPager.OnPageChangeListener listener, int events,
+        int scrollSampleFrames);
+
+    void removeOnPageChangeListener(ViewPager.OnPageChangeListener listener);
+
     /**
      * Notify the indicator that the fragment list has changed.
      */
@@ -0,0 +1,201 @@
+package com.indicator.viewpager;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+/**
+ * Sets the off-screen page limit of a ViewPager from a memory budget: as many pages as the
+ * estimated memory of the live pages allows, so a roomy budget keeps more than the requested
+ * limit and a tight one fewer, see {@link #computeLimit}. Drops off-screen pages and adapter
+ * caches when the system runs low on memory.
+ *
+ * ViewPager 至少保留左右各 1 页，预算再小也不会低于这个数量
+ */
+final class PageMemoryBudget implements ComponentCallbacks2 {
+
+  /** Counts bitmaps held by image views and bitmap backgrounds. */
+  static final PageMemoryEstimator BITMAP_ESTIMATOR = new PageMemoryEstimator() {
+    @Override public long estimateBytes(View page) {
+      long bytes = drawableBytes(page.getBackground());
+      if (page instanceof ImageView) {
+        bytes += drawableBytes(((ImageView) page).getDrawable());
+      }
+      if (page instanceof ViewGroup) {
+        final ViewGroup group = (ViewGroup) page;
+        for (int i = 0, count = group.getChildCount(); i < count; i++) {
+          bytes += estimateBytes(group.getChildAt(i));
+        }
+      }
+      return bytes;
+    }
+
+    private long drawableBytes(Drawable drawable) {
+      if (drawable instanceof BitmapDrawable) {
+        final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+        if (bitmap != null) {
+          return bitmap.getByteCount();
+        }
+      }
+      return 0;
+    }
+  };
+
+  /** Cap of the limit a budget raises to, unless a higher limit was requested. */
+  static final int MAX_BUDGET_LIMIT = 3;
+
+  /** Budget that is a share of the app's heap, see {@link #computeAutoBudget(int)}. */
+  static final long BUDGET_AUTO = -2;
+
+  private final ViewPager mViewPager;
+  private int mRequestedLimit = 1;
+  private long mBudgetBytes = -1;
+  private PageMemoryEstimator mEstimator = BITMAP_ESTIMATOR;
+  /** The last trim level that dropped pages, 0 once the banner is shown again. */
+  private int mTrimLevel;
+  private boolean mUpdatePosted;
+  private long mLastEstimateBytes;
+
+  private final Runnable mUpdate = new Runnable() {
+    @Override public void run() {
+      mUpdatePosted = false;
+      update();
+    }
+  };
+
+  PageMemoryBudget(ViewPager viewPager) {
+    mViewPager = viewPager;
+  }
+
+  void setRequestedLimit(int limit) {
+    mRequestedLimit = Math.max(1, limit);
+    update();
+  }
+
+  int getRequestedLimit() {
+    return mRequestedLimit;
+  }
+
+  /**
+   * @param bytes the budget, -1 for none or {@link #BUDGET_AUTO} to derive it from the memory
+   *     class of the device
+   */
+  void setBudget(long bytes, PageMemoryEstimator estimator) {
+    if (bytes == BUDGET_AUTO) {
+      final ActivityManager activityManager = (ActivityManager) mViewPager.getContext()
+          .getSystemService(Context.ACTIVITY_SERVICE);
+      bytes = computeAutoBudget(activityManager.getMemoryClass());
+    }
+    mBudgetBytes = bytes;
+    mEstimator = estimator != null ? estimator : BITMAP_ESTIMATOR;
+    update();
+  }
+
+  long getBudget() {
+    return mBudgetBytes;
+  }
+
+  /** Estimated bytes of the live pages as of the last update. */
+  long getLastEstimateBytes() {
+    return mLastEstimateBytes;
+  }
+
+  /** The banner is shown again, lift the limit a memory trim imposed. */
+  void resetTrim() {
+    if (mTrimLevel != 0) {
+      mTrimLevel = 0;
+      update();
+    }
+  }
+
+  /**
+   * Re-estimates on the next loop, pages change while the ViewPager populates and the limit must
+   * not be changed from inside that.
+   */
+  void requestUpdate() {
+    if (!mUpdatePosted) {
+      mUpdatePosted = true;
+      mViewPager.post(mUpdate);
+    }
+  }
+
+  void cancelUpdate() {
+    mUpdatePosted = false;
+    mViewPager.removeCallbacks(mUpdate);
+  }
+
+  /**
+   * A budget of an eighth of the heap an app gets on a device of {@code memoryClassMb}, the
+   * share commonly given to bitmap caches.
+   */
+  static long computeAutoBudget(int memoryClassMb) {
+    return memoryClassMb * 1024L * 1024L / 8;
+  }
+
+  /**
+   * The off-screen page limit for {@code pages} live pages estimated at {@code totalBytes}.
+   * Without a budget (negative) or an estimate it is the requested limit. With one it is as many
+   * pages on each side as fit, at least 1 and at most the larger of the requested limit and
+   * {@link #MAX_BUDGET_LIMIT}. From {@link #TRIM_MEMORY_RUNNING_LOW} on it is 1.
+   */
+  static int computeLimit(int requestedLimit, long budgetBytes, int pages, long totalBytes,
+      int trimLevel) {
+    if (trimLevel >= TRIM_MEMORY_RUNNING_LOW) {
+      return 1;
+    }
+    if (budgetBytes < 0 || pages <= 0 || totalBytes <= 0) {
+      return requestedLimit;
+    }
+    // Pages kept are the current one plus limit on each side
+    final long perPage = (totalBytes + pages - 1) / pages;
+    final long fitting = budgetBytes / perPage;
+    final int maxLimit = Math.max(requestedLimit, MAX_BUDGET_LIMIT);
+    return (int) Math.max(1, Math.min(maxLimit, (fitting - 1) / 2));
+  }
+
+  private void update() {
+    final int pages = mViewPager.getChildCount();
+    long total = 0;
+    if (mTrimLevel < TRIM_MEMORY_RUNNING_LOW && mBudgetBytes >= 0) {
+      for (int i = 0; i < pages; i++) {
+        total += mEstimator.estimateBytes(mViewPager.getChildAt(i));
+      }
+      mLastEstimateBytes = total;
+    }
+    final int limit = computeLimit(mRequestedLimit, mBudgetBytes, pages, total, mTrimLevel);
+    if (mViewPager.getOffscreenPageLimit() != limit) {
+      mViewPager.setOffscreenPageLimit(limit);
+    }
+  }
+
+  @Override public void onTrimMemory(int level) {
+    if (level < TRIM_MEMORY_RUNNING_LOW) {
+      return;
+    }
+    mTrimLevel = level;
+    update();
+    PagerAdapter adapter = mViewPager.getAdapter();
+    if (adapter instanceof LoopPagerAdapter) {
+      adapter = ((LoopPagerAdapter) adapter).getRealAdapter();
+    }
+    if (adapter instanceof RecyclingPagerAdapter) {
+      ((RecyclingPagerAdapter) adapter).onTrimMemory(level);
+    }
+  }
+
+  @Override public void onLowMemory() {
+    onTrimMemory(TRIM_MEMORY_COMPLETE);
+  }
+
+  @Override public void onConfigurationChanged(Configuration newConfig) {
+  }
+}
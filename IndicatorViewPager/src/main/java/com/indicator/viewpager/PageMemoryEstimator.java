@@ -0,0 +1,14 @@
+package com.indicator.viewpager;
+
+import android.view.View;
+
+/**
+ * Estimates how much memory a live page holds, for
+ * {@link IndicatorViewPager#setPageMemoryBudget(long, PageMemoryEstimator)}. The default counts
+ * the bitmaps of image views and bitmap backgrounds in the page.
+ */
+public interface PageMemoryEstimator {
+
+  /** Estimated bytes retained by {@code page}, called on the main thread. */
+  long estimateBytes(View page);
+}
@@ -0,0 +1,21 @@
+package com.indicator.viewpager;
+
+/**
+ * Warms pages before auto-scroll shows them, see
+ * {@link IndicatorViewPager#setPagePrefetcher(PagePrefetcher, int)}. Adapters passed to
+ * {@code setAdapter} that implement it are used automatically for the next page.
+ *
+ * 自动轮播时提前通知即将显示的页面，适配器可以在空闲时预加载图片、布局，切换的那一帧就不会卡顿
+ */
+public interface PagePrefetcher {
+
+  /**
+   * Called on the main thread while its queue is idle, once per upcoming page and in display
+   * order. Slow work should be moved off the main thread or split across idle passes.
+   *
+   * @param position the page's position in the adapter passed to {@code setAdapter}
+   * @param displayAtMillis when auto-scroll is expected to start showing the page, in
+   * {@link android.os.SystemClock#uptimeMillis()} time
+   */
+  void onPrefetch(int position, long displayAtMillis);
+}
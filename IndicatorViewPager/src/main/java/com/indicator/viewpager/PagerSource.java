@@ -0,0 +1,57 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.ViewPager;
+import android.view.View;
+
+/**
+ * The pager an indicator and a banner drive, so both work on top of a {@link ViewPager}
+ * ({@link ViewPagerSource}) as well as a RecyclerView ({@link RecyclerPagerSource}). Positions
+ * are pager positions; a looping adapter adds mirror positions that
+ * {@link #toRealPosition(int)} maps back to the real pages.
+ *
+ * 指示器和轮播图通过它使用 ViewPager 或者 RecyclerView
+ */
+public interface PagerSource {
+
+  View getView();
+
+  /** Whether an adapter is set. */
+  boolean hasAdapter();
+
+  /** Number of pager positions, including mirror positions of a looping adapter. */
+  int getCount();
+
+  /** Number of real pages, one dot each. Equals {@link #getCount()} without a looping adapter. */
+  int getRealCount();
+
+  /** Whether the adapter has mirror positions around the real pages. */
+  boolean isLooping();
+
+  int toRealPosition(int position);
+
+  /** The (non-mirror) pager position of a real page. */
+  int toLoopPosition(int realPosition);
+
+  /** The real page with the same content as {@code position}, see {@link LoopPagerAdapter}. */
+  int getSnapPosition(int position);
+
+  int getCurrentItem();
+
+  void setCurrentItem(int position, boolean smoothScroll);
+
+  /**
+   * The one listener page changes are reported to, with the semantics and scroll states of
+   * {@link ViewPager.OnPageChangeListener}; null to remove it.
+   */
+  void setOnPageChangeListener(ViewPager.OnPageChangeListener listener);
+
+  /** Starts a drag of the pager by code, false if the pager is busy. */
+  boolean beginFakeDrag();
+
+  void fakeDragBy(float deltaX);
+
+  /** Ends the drag, the pager settles on the nearest page. */
+  void endFakeDrag();
+
+  boolean isFakeDragging();
+}
@@ -0,0 +1,395 @@
+package com.indicator.viewpager;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.support.v4.view.ViewPager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.LinearSmoothScroller;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * {@link PagerSource} that turns a horizontal RecyclerView into a pager: it snaps to whole pages,
+ * a fling moves exactly one page, and page changes are reported like a ViewPager reports them.
+ * Pages must be as wide as the RecyclerView (match_parent). Loops with a
+ * {@link LoopRecyclerAdapter}.
+ *
+ * 用 RecyclerView 实现的翻页：按页对齐，一次 fling 只翻一页；页面的宽度必须和 RecyclerView 一样
+ */
+public class RecyclerPagerSource implements PagerSource {
+
+  private final RecyclerView mRecyclerView;
+  private final LinearLayoutManager mLayoutManager;
+  private ViewPager.OnPageChangeListener mListener;
+
+  private int mCurrentItem;
+  /** Scroll state as reported, in the ViewPager sense. */
+  private int mScrollState = ViewPager.SCROLL_STATE_IDLE;
+  /** A page scroll started by this class is running. */
+  private boolean mSettling;
+  /** Set while stopping a scroll from code, the resulting state change is not a user action. */
+  private boolean mStopping;
+  /** Direction of the last scroll step, picks the page a fling goes to. */
+  private int mLastDx;
+  private boolean mFakeDragging;
+  private float mFakeDragRemainder;
+  private int mTransitionDuration = -1;
+
+  private final RecyclerView.OnScrollListener mScrollListener =
+      new RecyclerView.OnScrollListener() {
+        @Override public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+          if (mStopping) {
+            return;
+          }
+          switch (newState) {
+            case RecyclerView.SCROLL_STATE_DRAGGING:
+              mSettling = false;
+              setScrollState(ViewPager.SCROLL_STATE_DRAGGING);
+              break;
+
+            case RecyclerView.SCROLL_STATE_SETTLING:
+              if (!mSettling) {
+                // A fling, let it start and then turn it into a one page scroll
+                mRecyclerView.post(mFlingSnap);
+              }
+              setScrollState(ViewPager.SCROLL_STATE_SETTLING);
+              break;
+
+            default:
+              mSettling = false;
+              settle(findNearestPage(0));
+              break;
+          }
+        }
+
+        @Override public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+          if (dx != 0) {
+            mLastDx = dx;
+          }
+          dispatchScrolled();
+        }
+      };
+
+  /** Keeps {@link #mCurrentItem} on the same item when items are added, removed or moved. */
+  private final RecyclerView.AdapterDataObserver mAdapterObserver =
+      new RecyclerView.AdapterDataObserver() {
+        @Override public void onChanged() {
+          mCurrentItem = Math.max(0, Math.min(mCurrentItem, getCount() - 1));
+        }
+
+        @Override public void onItemRangeInserted(int positionStart, int itemCount) {
+          if (positionStart <= mCurrentItem) {
+            mCurrentItem += itemCount;
+          }
+        }
+
+        @Override public void onItemRangeRemoved(int positionStart, int itemCount) {
+          if (mCurrentItem >= positionStart + itemCount) {
+            mCurrentItem -= itemCount;
+          } else if (mCurrentItem >= positionStart) {
+            // The current item is gone, the one that takes its place becomes current
+            mCurrentItem = Math.max(0, Math.min(positionStart, getCount() - 1));
+          }
+        }
+
+        @Override public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+          if (mCurrentItem == fromPosition) {
+            mCurrentItem = toPosition;
+          } else if (fromPosition < mCurrentItem && toPosition >= mCurrentItem) {
+            mCurrentItem--;
+          } else if (fromPosition > mCurrentItem && toPosition <= mCurrentItem) {
+            mCurrentItem++;
+          }
+        }
+      };
+  private RecyclerView.Adapter<?> mAdapter;
+
+  private final Runnable mFlingSnap = new Runnable() {
+    @Override public void run() {
+      if (mSettling || mRecyclerView.getScrollState() != RecyclerView.SCROLL_STATE_SETTLING) {
+        return;
+      }
+      stopScroll();
+      scrollToPage(findNearestPage(mLastDx), -1);
+    }
+  };
+
+  public RecyclerPagerSource(RecyclerView recyclerView) {
+    mRecyclerView = recyclerView;
+    final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+    if (layoutManager instanceof LinearLayoutManager
+        && ((LinearLayoutManager) layoutManager).getOrientation()
+        == LinearLayoutManager.HORIZONTAL) {
+      mLayoutManager = (LinearLayoutManager) layoutManager;
+    } else {
+      mLayoutManager =
+          new LinearLayoutManager(recyclerView.getContext(), LinearLayoutManager.HORIZONTAL, false);
+      recyclerView.setLayoutManager(mLayoutManager);
+    }
+    recyclerView.addOnScrollListener(mScrollListener);
+    setAdapter(recyclerView.getAdapter());
+  }
+
+  /**
+   * Sets the adapter of the RecyclerView. Use this rather than RecyclerView#setAdapter, so that
+   * the current item follows insertions and removals before it.
+   */
+  public void setAdapter(RecyclerView.Adapter<?> adapter) {
+    if (mAdapter != null) {
+      mAdapter.unregisterAdapterDataObserver(mAdapterObserver);
+      if (mAdapter instanceof LoopRecyclerAdapter && mAdapter != adapter) {
+        ((LoopRecyclerAdapter) mAdapter).release();
+      }
+    }
+    mAdapter = adapter;
+    if (adapter != null) {
+      adapter.registerAdapterDataObserver(mAdapterObserver);
+    }
+    if (mRecyclerView.getAdapter() != adapter) {
+      mRecyclerView.setAdapter(adapter);
+    }
+  }
+
+  public RecyclerView getRecyclerView() {
+    return mRecyclerView;
+  }
+
+  /**
+   * Duration of page changes by {@link #setCurrentItem(int, boolean)}, -1 for the RecyclerView
+   * default. Settling after a drag always uses the default.
+   */
+  public void setTransitionDuration(int durationMillis) {
+    mTransitionDuration = durationMillis;
+  }
+
+  private LoopRecyclerAdapter getLoopAdapter() {
+    final RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+    return adapter instanceof LoopRecyclerAdapter ? (LoopRecyclerAdapter) adapter : null;
+  }
+
+  @Override public View getView() {
+    return mRecyclerView;
+  }
+
+  @Override public boolean hasAdapter() {
+    return mRecyclerView.getAdapter() != null;
+  }
+
+  @Override public int getCount() {
+    final RecyclerView.Adapter adapter = mRecyclerView.getAdapter();
+    return adapter != null ? adapter.getItemCount() : 0;
+  }
+
+  @Override public int getRealCount() {
+    final LoopRecyclerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.getRealCount() : getCount();
+  }
+
+  @Override public boolean isLooping() {
+    final LoopRecyclerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null && loopAdapter.isLooping();
+  }
+
+  @Override public int toRealPosition(int position) {
+    final LoopRecyclerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.toRealPosition(position) : position;
+  }
+
+  @Override public int toLoopPosition(int realPosition) {
+    final LoopRecyclerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.toLoopPosition(realPosition) : realPosition;
+  }
+
+  @Override public int getSnapPosition(int position) {
+    final LoopRecyclerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.getSnapPosition(position) : position;
+  }
+
+  @Override public int getCurrentItem() {
+    return mCurrentItem;
+  }
+
+  @Override public void setCurrentItem(int position, boolean smoothScroll) {
+    final int count = getCount();
+    if (count == 0) {
+      return;
+    }
+    position = Math.max(0, Math.min(position, count - 1));
+    if (smoothScroll) {
+      scrollToPage(position, mTransitionDuration);
+      return;
+    }
+    stopScroll();
+    mSettling = false;
+    mLayoutManager.scrollToPositionWithOffset(position, 0);
+    selectPage(position);
+    if (mListener != null) {
+      mListener.onPageScrolled(position, 0, 0);
+    }
+    setScrollState(ViewPager.SCROLL_STATE_IDLE);
+  }
+
+  @Override public void setOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
+    mListener = listener;
+  }
+
+  @Override public boolean beginFakeDrag() {
+    if (mRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_DRAGGING) {
+      return false;
+    }
+    stopScroll();
+    mSettling = false;
+    mFakeDragging = true;
+    mFakeDragRemainder = 0;
+    setScrollState(ViewPager.SCROLL_STATE_DRAGGING);
+    return true;
+  }
+
+  @Override public void fakeDragBy(float deltaX) {
+    if (!mFakeDragging) {
+      throw new IllegalStateException("No fake drag in progress. Call beginFakeDrag first.");
+    }
+    // Whole pixels only, the rest is carried over to the next call
+    final float distance = mFakeDragRemainder - deltaX;
+    final int dx = (int) distance;
+    mFakeDragRemainder = distance - dx;
+    if (dx != 0) {
+      mRecyclerView.scrollBy(dx, 0);
+    }
+  }
+
+  @Override public void endFakeDrag() {
+    if (!mFakeDragging) {
+      throw new IllegalStateException("No fake drag in progress. Call beginFakeDrag first.");
+    }
+    mFakeDragging = false;
+    scrollToPage(findNearestPage(0), -1);
+  }
+
+  @Override public boolean isFakeDragging() {
+    return mFakeDragging;
+  }
+
+  private void stopScroll() {
+    mStopping = true;
+    mRecyclerView.stopScroll();
+    mStopping = false;
+  }
+
+  private void setScrollState(int state) {
+    if (mScrollState == state) {
+      return;
+    }
+    mScrollState = state;
+    if (mListener != null) {
+      mListener.onPageScrollStateChanged(state);
+    }
+  }
+
+  private void selectPage(int position) {
+    if (position == mCurrentItem) {
+      return;
+    }
+    mCurrentItem = position;
+    if (mListener != null) {
+      mListener.onPageSelected(position);
+    }
+  }
+
+  /**
+   * The page to settle on: in the direction of {@code direction} if it is not 0, otherwise the
+   * page that covers most of the RecyclerView.
+   */
+  private int findNearestPage(int direction) {
+    final int first = mLayoutManager.findFirstVisibleItemPosition();
+    if (first == RecyclerView.NO_POSITION) {
+      return mCurrentItem;
+    }
+    final View page = mLayoutManager.findViewByPosition(first);
+    final int width = page != null ? page.getWidth() : 0;
+    if (width == 0) {
+      return first;
+    }
+    final int scrolled = mRecyclerView.getPaddingLeft() - page.getLeft();
+    if (scrolled == 0) {
+      return first;
+    }
+    if (direction != 0) {
+      return direction > 0 ? first + 1 : first;
+    }
+    return scrolled * 2 >= width ? first + 1 : first;
+  }
+
+  /** Scrolls {@code position} into place and reports it selected, settles at once if it is. */
+  private void scrollToPage(int position, int durationMillis) {
+    final int count = getCount();
+    if (count == 0) {
+      return;
+    }
+    position = Math.max(0, Math.min(position, count - 1));
+    final View page = mLayoutManager.findViewByPosition(position);
+    if (page != null && page.getLeft() == mRecyclerView.getPaddingLeft()) {
+      settle(position);
+      return;
+    }
+    selectPage(position);
+    mSettling = true;
+    final PageScroller scroller = new PageScroller(mRecyclerView.getContext(), durationMillis);
+    scroller.setTargetPosition(position);
+    mLayoutManager.startSmoothScroll(scroller);
+  }
+
+  /** The RecyclerView stopped: settles on {@code position} if it is in place, else scrolls it. */
+  private void settle(int position) {
+    final View page = mLayoutManager.findViewByPosition(position);
+    if (page != null && page.getLeft() != mRecyclerView.getPaddingLeft()) {
+      scrollToPage(position, -1);
+      return;
+    }
+    selectPage(position);
+    setScrollState(ViewPager.SCROLL_STATE_IDLE);
+  }
+
+  private void dispatchScrolled() {
+    if (mListener == null) {
+      return;
+    }
+    final int first = mLayoutManager.findFirstVisibleItemPosition();
+    if (first == RecyclerView.NO_POSITION) {
+      return;
+    }
+    final View page = mLayoutManager.findViewByPosition(first);
+    final int width = page != null ? page.getWidth() : 0;
+    if (width == 0) {
+      return;
+    }
+    final int offsetPixels = mRecyclerView.getPaddingLeft() - page.getLeft();
+    mListener.onPageScrolled(first, (float) offsetPixels / width, offsetPixels);
+  }
+
+  /** Aligns the target page with the start, optionally in a fixed time. */
+  private final class PageScroller extends LinearSmoothScroller {
+    private final int mDurationMillis;
+
+    PageScroller(Context context, int durationMillis) {
+      super(context);
+      mDurationMillis = durationMillis;
+    }
+
+    @Override public PointF computeScrollVectorForPosition(int targetPosition) {
+      return mLayoutManager.computeScrollVectorForPosition(targetPosition);
+    }
+
+    @Override protected int getHorizontalSnapPreference() {
+      return SNAP_TO_START;
+    }
+
+    /**
+     * Only the final deceleration onto the found target takes the fixed duration; also fixing
+     * the seek phase before it, which LinearSmoothScroller times separately, would double it.
+     */
+    @Override protected int calculateTimeForDeceleration(int dx) {
+      return mDurationMillis >= 0 ? mDurationMillis : super.calculateTimeForDeceleration(dx);
+    }
+  }
+}
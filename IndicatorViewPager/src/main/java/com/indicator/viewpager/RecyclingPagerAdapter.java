@@ -0,0 +1,123 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.PagerAdapter;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.ArrayList;
+
+/**
+ * A {@link PagerAdapter} that keeps destroyed pages in a bounded pool per view type and binds new
+ * positions into them, the same create/bind split as RecyclerView.Adapter. Pages are plain views;
+ * {@link #instantiateItem(ViewGroup, int)} always returns a view that is not currently attached,
+ * so it can be wrapped by {@link LoopPagerAdapter}.
+ *
+ * 页面复用：被销毁的页面放入缓存池，下次实例化时重新绑定数据，避免自动轮播时不停地创建 View
+ */
+public abstract class RecyclingPagerAdapter extends PagerAdapter {
+
+  private static final int DEFAULT_MAX_RECYCLED_VIEWS = 3;
+
+  private final SparseArray<ArrayList<View>> mRecycledViews = new SparseArray<>();
+  private final SparseIntArray mMaxRecycledViews = new SparseIntArray();
+  private int mPoolHitCount;
+  private int mPoolMissCount;
+
+  /**
+   * Creates a new page of the given view type. Listeners that do not depend on the position
+   * should be set up here rather than in {@link #onBindView(View, int)}.
+   */
+  public abstract View onCreateView(ViewGroup container, int viewType);
+
+  /**
+   * Binds the data for {@code position} into a freshly created or recycled page.
+   */
+  public abstract void onBindView(View view, int position);
+
+  public int getItemViewType(int position) {
+    return 0;
+  }
+
+  /**
+   * Called when a page is returned to the pool, to release anything it should not keep while
+   * off-screen (large bitmaps, running animations).
+   */
+  protected void onViewRecycled(View view) {
+  }
+
+  /**
+   * Sets how many detached pages of {@code viewType} are kept for reuse, 3 by default.
+   */
+  public void setMaxRecycledViews(int viewType, int max) {
+    mMaxRecycledViews.put(viewType, max);
+    final ArrayList<View> scrap = mRecycledViews.get(viewType);
+    if (scrap != null) {
+      while (scrap.size() > max) {
+        scrap.remove(scrap.size() - 1);
+      }
+    }
+  }
+
+  public void clearRecycledViews() {
+    mRecycledViews.clear();
+  }
+
+  /**
+   * Called by {@link IndicatorViewPager} when the system asks to trim memory, see
+   * {@link android.content.ComponentCallbacks2}. Drops the pooled pages.
+   */
+  public void onTrimMemory(int level) {
+    clearRecycledViews();
+  }
+
+  /** Number of pages served from the pool. */
+  public int getPoolHitCount() {
+    return mPoolHitCount;
+  }
+
+  /** Number of pages that had to be created because the pool was empty. */
+  public int getPoolMissCount() {
+    return mPoolMissCount;
+  }
+
+  @Override public Object instantiateItem(ViewGroup container, int position) {
+    final int viewType = getItemViewType(position);
+    View view = null;
+    final ArrayList<View> scrap = mRecycledViews.get(viewType);
+    if (scrap != null && !scrap.isEmpty()) {
+      view = scrap.remove(scrap.size() - 1);
+    }
+
+    if (view == null) {
+      mPoolMissCount++;
+      view = onCreateView(container, viewType);
+      view.setTag(R.id.iv_view_type, viewType);
+    } else {
+      mPoolHitCount++;
+    }
+    onBindView(view, position);
+    container.addView(view);
+    return view;
+  }
+
+  @Override public void destroyItem(ViewGroup container, int position, Object object) {
+    final View view = (View) object;
+    container.removeView(view);
+    onViewRecycled(view);
+
+    final int viewType = (Integer) view.getTag(R.id.iv_view_type);
+    ArrayList<View> scrap = mRecycledViews.get(viewType);
+    if (scrap == null) {
+      scrap = new ArrayList<>();
+      mRecycledViews.put(viewType, scrap);
+    }
+    if (scrap.size() < mMaxRecycledViews.get(viewType, DEFAULT_MAX_RECYCLED_VIEWS)) {
+      scrap.add(view);
+    }
+  }
+
+  @Override public boolean isViewFromObject(View view, Object object) {
+    return view == object;
+  }
+}
@@ -0,0 +1,92 @@
+package com.indicator.viewpager;
+
+import android.support.v4.view.PagerAdapter;
+import android.support.v4.view.ViewPager;
+import android.view.View;
+
+/**
+ * {@link PagerSource} of a {@link ViewPager}, looping with a {@link LoopPagerAdapter}.
+ */
+public class ViewPagerSource implements PagerSource {
+
+  private final ViewPager mViewPager;
+
+  public ViewPagerSource(ViewPager viewPager) {
+    mViewPager = viewPager;
+  }
+
+  public ViewPager getViewPager() {
+    return mViewPager;
+  }
+
+  private LoopPagerAdapter getLoopAdapter() {
+    final PagerAdapter adapter = mViewPager.getAdapter();
+    return adapter instanceof LoopPagerAdapter ? (LoopPagerAdapter) adapter : null;
+  }
+
+  @Override public View getView() {
+    return mViewPager;
+  }
+
+  @Override public boolean hasAdapter() {
+    return mViewPager.getAdapter() != null;
+  }
+
+  @Override public int getCount() {
+    final PagerAdapter adapter = mViewPager.getAdapter();
+    return adapter != null ? adapter.getCount() : 0;
+  }
+
+  @Override public int getRealCount() {
+    final LoopPagerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.getRealCount() : getCount();
+  }
+
+  @Override public boolean isLooping() {
+    final LoopPagerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null && loopAdapter.isLooping();
+  }
+
+  @Override public int toRealPosition(int position) {
+    final LoopPagerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.toRealPosition(position) : position;
+  }
+
+  @Override public int toLoopPosition(int realPosition) {
+    final LoopPagerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.toLoopPosition(realPosition) : realPosition;
+  }
+
+  @Override public int getSnapPosition(int position) {
+    final LoopPagerAdapter loopAdapter = getLoopAdapter();
+    return loopAdapter != null ? loopAdapter.getSnapPosition(position) : position;
+  }
+
+  @Override public int getCurrentItem() {
+    return mViewPager.getCurrentItem();
+  }
+
+  @Override public void setCurrentItem(int position, boolean smoothScroll) {
+    mViewPager.setCurrentItem(position, smoothScroll);
+  }
+
+  @Override public void setOnPageChangeListener(ViewPager.OnPageChangeListener listener) {
+    mViewPager.setOnPageChangeListener(listener);
+  }
+
+  @Override public boolean beginFakeDrag() {
+    return mViewPager.beginFakeDrag();
+  }
+
+  @Override public void fakeDragBy(float deltaX) {
+    mViewPager.fakeDragBy(deltaX);
+  }
+
+  @Override public void endFakeDrag() {
+    mViewPager.endFakeDrag();
+  }
+
+  @Override public boolean isFakeDragging() {
+    return mViewPager.isFakeDragging();
+  }
+}
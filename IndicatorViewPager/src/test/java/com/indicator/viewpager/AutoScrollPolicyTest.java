@@ -0,0 +1,108 @@
+package com.indicator.viewpager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AutoScrollPolicyTest {
+
+  private static final int DWELL = 3000;
+  private static final long DEADLINE = 10000;
+
+  @Test public void notAdaptiveKeepsTheConfiguredDuration() {
+    final AutoScrollPolicy policy = new AutoScrollPolicy();
+    assertEquals(-1, policy.computeTransitionDurationMillis(-1, 5));
+    policy.setTransitionDurationMillis(400);
+    assertEquals(400, policy.computeTransitionDurationMillis(400, 5));
+  }
+
+  @Test public void adaptiveWithoutDurationStartsFromTheDefault() {
+    final AutoScrollPolicy policy = new AutoScrollPolicy();
+    policy.setAdaptive(true);
+    final int base = AutoScrollPolicy.DEFAULT_ADAPTIVE_TRANSITION_DURATION_MILLIS;
+    // Smooth transitions stay at the default, dropped frames shorten it down to the minimum
+    assertEquals(base, policy.computeTransitionDurationMillis(-1, 0));
+    assertEquals(AutoScrollPolicy.DEFAULT_MIN_TRANSITION_DURATION_MILLIS,
+        policy.computeTransitionDurationMillis(-1, 3));
+  }
+
+  @Test public void adaptiveShortensAndGrowsBack() {
+    final AutoScrollPolicy policy = new AutoScrollPolicy();
+    policy.setAdaptive(true);
+    policy.setTransitionDurationMillis(800);
+    int duration = policy.computeTransitionDurationMillis(800, 2);
+    assertEquals(400, duration);
+    duration = policy.computeTransitionDurationMillis(duration, 1);
+    assertEquals(200, duration);
+    duration = policy.computeTransitionDurationMillis(duration, 1);
+    assertEquals(150, duration);
+    for (int i = 0; i < 20; i++) {
+      duration = policy.computeTransitionDurationMillis(duration, 0);
+    }
+    assertEquals(800, duration);
+  }
+
+  @Test public void engagedPageDwellsLongerUpToTheCap() {
+    final AutoScrollPolicy policy = new AutoScrollPolicy(1000);
+    assertEquals(1000, policy.computeDwellMillis(true));
+    policy.setAdaptive(true);
+    assertEquals(2000, policy.computeDwellMillis(true));
+    policy.setEngagedDwellMultiplier(5f);
+    assertEquals(3000, policy.computeDwellMillis(true));
+    assertEquals(1000, policy.computeDwellMillis(false));
+  }
+
+  @Test public void onTimeTickKeepsTheGrid() {
+    final long next = AutoScrollPolicy.computeNextDeadline(DEADLINE, DEADLINE, DWELL);
+    assertEquals(DEADLINE + DWELL, next);
+    assertEquals(0, AutoScrollPolicy.countSkippedTicks(DEADLINE, next, DWELL));
+  }
+
+  @Test public void slightlyLateTickDoesNotPushTheNextOneBack() {
+    final long next = AutoScrollPolicy.computeNextDeadline(DEADLINE, DEADLINE + 200, DWELL);
+    assertEquals(DEADLINE + DWELL, next);
+    assertEquals(0, AutoScrollPolicy.countSkippedTicks(DEADLINE, next, DWELL));
+  }
+
+  @Test public void tickLateByMoreThanHalfADwellSkipsOne() {
+    // The page advanced to would show only 1400 ms, so the next deadline on the grid is used
+    final long next = AutoScrollPolicy.computeNextDeadline(DEADLINE, DEADLINE + 1600, DWELL);
+    assertEquals(DEADLINE + 2 * DWELL, next);
+    assertEquals(1, AutoScrollPolicy.countSkippedTicks(DEADLINE, next, DWELL));
+  }
+
+  @Test public void tickLateBySeveralDwellsCoalescesIntoOneAdvance() {
+    final long now = DEADLINE + 8000;
+    final long next = AutoScrollPolicy.computeNextDeadline(DEADLINE, now, DWELL);
+    assertEquals(DEADLINE + 4 * DWELL, next);
+    assertEquals(0, (next - DEADLINE) % DWELL);
+    assertTrue(next - now >= DWELL / 2);
+    assertEquals(3, AutoScrollPolicy.countSkippedTicks(DEADLINE, next, DWELL));
+  }
+
+  @Test public void stalledTickerReanchorsToTheGrid() {
+    // Ticks run as a handler would run them: on time, then once after a 10 s stall, then on time
+    long deadline = DEADLINE;
+    long advances = 0;
+    long skipped = 0;
+    final long[] runAt = {DEADLINE, DEADLINE + DWELL + 10000, -1, -1};
+    for (long now : runAt) {
+      if (now < 0) {
+        now = deadline;
+      }
+      advances++;
+      final long next = AutoScrollPolicy.computeNextDeadline(deadline, now, DWELL);
+      skipped += AutoScrollPolicy.countSkippedTicks(deadline, next, DWELL);
+      deadline = next;
+    }
+    assertEquals(4, advances);
+    assertEquals(3, skipped);
+    assertEquals(DEADLINE + (advances + skipped) * DWELL, deadline);
+  }
+
+  @Test public void zeroDwellAdvancesNow() {
+    assertEquals(DEADLINE + 5, AutoScrollPolicy.computeNextDeadline(DEADLINE, DEADLINE + 5, 0));
+    assertEquals(0, AutoScrollPolicy.countSkippedTicks(DEADLINE, DEADLINE + 5, 0));
+  }
+}
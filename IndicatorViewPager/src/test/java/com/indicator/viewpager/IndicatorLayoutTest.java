@@ -0,0 +1,248 @@
+package com.indicator.viewpager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndicatorLayoutTest {
+
+  private static final float DELTA = 0.001f;
+
+  private IndicatorLayout mLayout;
+
+  /** Radius 10 and no point margin, so the dots are 30 apart; 200x40 with 5 padding. */
+  @Before public void setUp() {
+    mLayout = new IndicatorLayout();
+    mLayout.setRadius(10);
+    mLayout.setBounds(200, 40, 5, 5, 5, 5);
+  }
+
+  @Test public void layoutPlacesDotsAlongTheRow() {
+    assertTrue(mLayout.layout(3));
+    assertEquals(3, mLayout.getCount());
+    assertEquals(30, mLayout.getStep(), DELTA);
+    assertArrayEquals(new float[] {20, 15, 50, 15, 80, 15}, mLayout.getDotCenters(), DELTA);
+  }
+
+  @Test public void layoutIsCachedUntilSomethingChanges() {
+    assertTrue(mLayout.layout(3));
+    assertFalse(mLayout.layout(3));
+    mLayout.setBounds(200, 40, 5, 5, 5, 5);
+    assertFalse(mLayout.layout(3));
+    assertTrue(mLayout.layout(4));
+    mLayout.setBounds(300, 40, 5, 5, 5, 5);
+    assertTrue(mLayout.isDirty());
+    assertTrue(mLayout.layout(4));
+  }
+
+  @Test public void centeredLayoutIsSymmetric() {
+    mLayout.setCentered(true);
+    mLayout.layout(3);
+    assertArrayEquals(new float[] {70, 15, 100, 15, 130, 15}, mLayout.getDotCenters(), DELTA);
+  }
+
+  @Test public void verticalLayoutPlacesDotsDownTheColumn() {
+    mLayout.setOrientation(IndicatorLayout.VERTICAL);
+    mLayout.setBounds(40, 200, 5, 5, 5, 5);
+    mLayout.layout(3);
+    assertArrayEquals(new float[] {15, 15, 15, 45, 15, 75}, mLayout.getDotCenters(), DELTA);
+    assertEquals(15, mLayout.getFillX(1, 0.5f), DELTA);
+    assertEquals(60, mLayout.getFillY(1, 0.5f), DELTA);
+  }
+
+  @Test public void layoutOfNoAndOneDot() {
+    mLayout.layout(0);
+    assertEquals(0, mLayout.getCount());
+    assertEquals(0, mLayout.getDotCenters().length);
+    mLayout.layout(1);
+    assertArrayEquals(new float[] {20, 15}, mLayout.getDotCenters(), DELTA);
+  }
+
+  @Test public void strokeShrinksTheFill() {
+    mLayout.setStrokeWidth(4);
+    mLayout.layout(1);
+    assertEquals(8, mLayout.getPageFillRadius(), DELTA);
+  }
+
+  @Test public void windowFollowsThePage() {
+    mLayout.setVisibleDotCount(5);
+    assertEquals(5, mLayout.getDrawnDotCount(10));
+    assertTrue(mLayout.updateWindow(0, 10));
+    assertFalse(mLayout.updateWindow(2, 10));
+    assertTrue(mLayout.updateWindow(3, 10));
+    assertEquals(1, mLayout.getWindowStart());
+    assertTrue(mLayout.updateWindow(9, 10));
+    assertEquals(5, mLayout.getWindowStart());
+    assertFalse(mLayout.updateWindow(7, 10));
+    assertTrue(mLayout.needsRelayout(9, 10));
+    mLayout.layout(5);
+    assertFalse(mLayout.needsRelayout(9, 10));
+    assertTrue(mLayout.needsRelayout(2, 10));
+  }
+
+  @Test public void windowOfAtLeastTheCountShowsEveryDot() {
+    mLayout.setVisibleDotCount(5);
+    assertEquals(3, mLayout.getDrawnDotCount(3));
+    assertEquals(5, mLayout.getDrawnDotCount(5));
+    assertTrue(mLayout.updateWindow(2, 3));
+    assertEquals(0, mLayout.getWindowStart());
+    assertFalse(mLayout.updateWindow(0, 3));
+    assertTrue(mLayout.updateWindow(4, 5));
+    assertEquals(0, mLayout.getWindowStart());
+  }
+
+  @Test public void windowOfNoAndOneDot() {
+    mLayout.setVisibleDotCount(5);
+    assertEquals(0, mLayout.getDrawnDotCount(0));
+    assertFalse(mLayout.updateWindow(0, 0));
+    assertTrue(mLayout.updateWindow(0, 1));
+    assertEquals(0, mLayout.getWindowStart());
+  }
+
+  @Test public void edgeDotsOfAMovedWindowShrink() {
+    mLayout.setVisibleDotCount(5);
+    mLayout.updateWindow(4, 10);
+    mLayout.layout(5);
+    assertEquals(0.5f, mLayout.getDotScale(0), DELTA);
+    assertEquals(0.75f, mLayout.getDotScale(1), DELTA);
+    assertEquals(1f, mLayout.getDotScale(2), DELTA);
+    assertEquals(0.75f, mLayout.getDotScale(3), DELTA);
+    assertEquals(0.5f, mLayout.getDotScale(4), DELTA);
+  }
+
+  @Test public void hitTestFindsTheDotWithinSlop() {
+    mLayout.layout(3);
+    // Reach is radius + slop = 14, less than half the 30 step
+    assertEquals(1, mLayout.hitTest(50, 15, 4));
+    assertEquals(1, mLayout.hitTest(63, 15, 4));
+    assertEquals(-1, mLayout.hitTest(65.5f, 15, 4));
+    assertEquals(0, mLayout.hitTest(7, 15, 4));
+    assertEquals(-1, mLayout.hitTest(5, 15, 4));
+    assertEquals(2, mLayout.hitTest(93, 15, 4));
+    assertEquals(-1, mLayout.hitTest(95, 15, 4));
+    assertEquals(-1, mLayout.hitTest(50, 30, 4));
+  }
+
+  @Test public void hitTestNeverReachesPastHalfwayToANeighbour() {
+    mLayout.layout(3);
+    assertEquals(1, mLayout.hitTest(64, 15, 40));
+    assertEquals(2, mLayout.hitTest(66, 15, 40));
+  }
+
+  @Test public void hitTestOfNoAndOneDot() {
+    mLayout.layout(0);
+    assertEquals(-1, mLayout.hitTest(20, 15, 4));
+    mLayout.layout(1);
+    assertEquals(0, mLayout.hitTest(20, 15, 4));
+    assertEquals(-1, mLayout.hitTest(50, 15, 4));
+  }
+
+  @Test public void hitTestVertical() {
+    mLayout.setOrientation(IndicatorLayout.VERTICAL);
+    mLayout.setBounds(40, 200, 5, 5, 5, 5);
+    mLayout.layout(3);
+    assertEquals(1, mLayout.hitTest(15, 45, 4));
+    assertEquals(2, mLayout.hitTest(20, 80, 4));
+    assertEquals(-1, mLayout.hitTest(35, 45, 4));
+    assertEquals(-1, mLayout.hitTest(50, 15, 4));
+  }
+
+  @Test public void mapScrollPageWrapsPastHalfway() {
+    assertEquals(3, IndicatorLayout.mapScrollPage(3, 0.4f, true));
+    assertEquals(4, IndicatorLayout.mapScrollPage(3, 0.5f, true));
+    assertEquals(3, IndicatorLayout.mapScrollPage(3, 0.9f, false));
+    assertEquals(0, IndicatorLayout.mapScrollPage(0, 0f, true));
+  }
+
+  @Test public void toCyclePageStaysInTheCurrentCycle() {
+    assertEquals(2, IndicatorLayout.toCyclePage(2, 0, 4));
+    assertEquals(12, IndicatorLayout.toCyclePage(0, 13, 4));
+    assertEquals(15, IndicatorLayout.toCyclePage(3, 13, 4));
+  }
+
+  /** The indicator's tap path, hit-testing a dot and mapping it to a page, allocates nothing. */
+  @Test public void tapPathDoesNotAllocate() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof ThreadMXBean);
+    final ThreadMXBean threads = (ThreadMXBean) bean;
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    final long thread = Thread.currentThread().getId();
+
+    mLayout.setVisibleDotCount(7);
+    mLayout.updateWindow(40, 100);
+    mLayout.layout(mLayout.getDrawnDotCount(100));
+    // Warms up the loop and the bean, then measures what reading the counter alone allocates
+    int hits = tapAlong(100000);
+    long start = threads.getThreadAllocatedBytes(thread);
+    final long overhead = threads.getThreadAllocatedBytes(thread) - start;
+    start = threads.getThreadAllocatedBytes(thread);
+    hits += tapAlong(100000);
+    final long allocated = threads.getThreadAllocatedBytes(thread) - start - overhead;
+    assertTrue(hits > 0);
+    assertEquals(0, allocated);
+  }
+
+  /** Taps along the dot row, returns how many taps hit a dot. */
+  private int tapAlong(int taps) {
+    int hits = 0;
+    float x = 0;
+    for (int i = 0; i < taps; i++) {
+      x = x > 200 ? 0 : x + mLayout.getStep() / 3;
+      final int dot = mLayout.hitTest(x, 15, 4);
+      if (dot >= 0 && IndicatorLayout.toCyclePage(mLayout.getWindowStart() + dot, 40, 10) >= 0) {
+        hits++;
+      }
+    }
+    return hits;
+  }
+
+  @Test public void measureLongFitsTheDots() {
+    mLayout.layout(3);
+    final int unspecified = IndicatorLayout.makeMeasureSpec(0, IndicatorLayout.UNSPECIFIED);
+    assertEquals(91, mLayout.measureLong(unspecified, 3));
+    assertEquals(120,
+        mLayout.measureLong(IndicatorLayout.makeMeasureSpec(120, IndicatorLayout.EXACTLY), 3));
+    assertEquals(50,
+        mLayout.measureLong(IndicatorLayout.makeMeasureSpec(50, IndicatorLayout.AT_MOST), 3));
+    assertEquals(91,
+        mLayout.measureLong(IndicatorLayout.makeMeasureSpec(200, IndicatorLayout.AT_MOST), 3));
+  }
+
+  @Test public void measureLongOfNoAndOneDot() {
+    final int unspecified = IndicatorLayout.makeMeasureSpec(0, IndicatorLayout.UNSPECIFIED);
+    assertEquals(11, mLayout.measureLong(unspecified, 0));
+    assertEquals(31, mLayout.measureLong(unspecified, 1));
+  }
+
+  @Test public void measureLongCountsOnlyTheVisibleDots() {
+    final int unspecified = IndicatorLayout.makeMeasureSpec(0, IndicatorLayout.UNSPECIFIED);
+    mLayout.setVisibleDotCount(5);
+    assertEquals(151, mLayout.measureLong(unspecified, 10));
+    assertEquals(91, mLayout.measureLong(unspecified, 3));
+  }
+
+  @Test public void measureShortFitsOneDot() {
+    assertEquals(31,
+        mLayout.measureShort(IndicatorLayout.makeMeasureSpec(0, IndicatorLayout.UNSPECIFIED)));
+    assertEquals(40,
+        mLayout.measureShort(IndicatorLayout.makeMeasureSpec(40, IndicatorLayout.EXACTLY)));
+    assertEquals(20,
+        mLayout.measureShort(IndicatorLayout.makeMeasureSpec(20, IndicatorLayout.AT_MOST)));
+  }
+
+  @Test public void verticalMeasureUsesThePaddingsAlongEachAxis() {
+    final int unspecified = IndicatorLayout.makeMeasureSpec(0, IndicatorLayout.UNSPECIFIED);
+    mLayout.setOrientation(IndicatorLayout.VERTICAL);
+    mLayout.setBounds(40, 200, 1, 2, 3, 4);
+    assertEquals(87, mLayout.measureLong(unspecified, 3));
+    assertEquals(25, mLayout.measureShort(unspecified));
+  }
+}
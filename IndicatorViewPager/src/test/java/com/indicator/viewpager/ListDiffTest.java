@@ -0,0 +1,155 @@
+package com.indicator.viewpager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ListDiffTest {
+
+  /** Items are "key:contents", matched by the key. */
+  private static final ListDiff.ItemCallback<String> CALLBACK =
+      new ListDiff.ItemCallback<String>() {
+        @Override public Object getKey(String item) {
+          return item.substring(0, item.indexOf(':'));
+        }
+
+        @Override public boolean areContentsTheSame(String oldItem, String newItem) {
+          return oldItem.equals(newItem);
+        }
+      };
+
+  /** Applies the dispatched updates to a copy of the old list, counting them by kind. */
+  private static final class Applier implements ListDiff.UpdateCallback {
+    final List<String> items;
+    final List<String> newItems;
+    int removed;
+    int moved;
+    int inserted;
+    int changed;
+
+    Applier(List<String> oldItems, List<String> newItems) {
+      items = new ArrayList<>(oldItems);
+      this.newItems = newItems;
+    }
+
+    @Override public void onRemoved(int position, int count) {
+      for (int i = 0; i < count; i++) {
+        items.remove(position);
+      }
+      removed += count;
+    }
+
+    @Override public void onMoved(int fromPosition, int toPosition) {
+      items.add(toPosition, items.remove(fromPosition));
+      moved++;
+    }
+
+    @Override public void onInserted(int position, int count) {
+      for (int i = 0; i < count; i++) {
+        items.add(position + i, newItems.get(position + i));
+      }
+      inserted += count;
+    }
+
+    @Override public void onChanged(int position, int count) {
+      for (int i = position; i < position + count; i++) {
+        // A change is dispatched where the kept item ended up
+        assertEquals(CALLBACK.getKey(newItems.get(i)), CALLBACK.getKey(items.get(i)));
+        items.set(i, newItems.get(i));
+      }
+      changed += count;
+    }
+  }
+
+  private static Applier apply(List<String> oldItems, List<String> newItems) {
+    final ListDiff diff = ListDiff.compute(oldItems, newItems, CALLBACK);
+    assertEquals(oldItems.size(), diff.getOldSize());
+    assertEquals(newItems.size(), diff.getNewSize());
+    final Applier applier = new Applier(oldItems, newItems);
+    diff.dispatchUpdatesTo(applier);
+    assertEquals(newItems, applier.items);
+    return applier;
+  }
+
+  private static List<String> items(String... items) {
+    return Arrays.asList(items);
+  }
+
+  @Test public void sameItemsHaveNoUpdates() {
+    final List<String> items = items("a:1", "b:1", "c:1");
+    assertFalse(ListDiff.compute(items, items, CALLBACK).hasUpdates());
+    final Applier applier = apply(items, items);
+    assertEquals(0, applier.removed + applier.moved + applier.inserted + applier.changed);
+  }
+
+  @Test public void insert() {
+    final Applier applier = apply(items("a:1", "c:1"), items("x:1", "a:1", "b:1", "c:1", "d:1"));
+    assertEquals(3, applier.inserted);
+    assertEquals(0, applier.removed + applier.moved + applier.changed);
+  }
+
+  @Test public void remove() {
+    final Applier applier = apply(items("a:1", "b:1", "c:1", "d:1"), items("b:1", "d:1"));
+    assertEquals(2, applier.removed);
+    assertEquals(0, applier.inserted + applier.moved + applier.changed);
+  }
+
+  @Test public void move() {
+    final Applier applier = apply(items("a:1", "b:1", "c:1", "d:1"),
+        items("b:1", "c:1", "a:1", "d:1"));
+    assertEquals(1, applier.moved);
+    assertEquals(0, applier.removed + applier.inserted + applier.changed);
+  }
+
+  @Test public void changeIsDispatchedAtTheNewPosition() {
+    final Applier applier = apply(items("a:1", "b:1", "c:1"), items("x:1", "c:2", "a:1", "b:2"));
+    assertEquals(2, applier.changed);
+    assertEquals(1, applier.inserted);
+  }
+
+  @Test public void duplicateKeys() {
+    // Only the first of equal keys is matched, the others are removed and inserted
+    final Applier applier = apply(items("a:1", "a:2", "b:1"), items("b:1", "a:1", "a:3"));
+    assertEquals(1, applier.removed);
+    assertEquals(1, applier.inserted);
+    apply(items("a:1", "b:1"), items("a:1", "a:1", "a:1", "b:1"));
+  }
+
+  @Test public void emptyToNonEmpty() {
+    final Applier applier = apply(Collections.<String>emptyList(), items("a:1", "b:1"));
+    assertEquals(2, applier.inserted);
+  }
+
+  @Test public void nonEmptyToEmpty() {
+    final Applier applier = apply(items("a:1", "b:1"), Collections.<String>emptyList());
+    assertEquals(2, applier.removed);
+    assertTrue(ListDiff.compute(items("a:1"), Collections.<String>emptyList(), CALLBACK)
+        .hasUpdates());
+  }
+
+  @Test public void emptyToEmpty() {
+    final List<String> empty = Collections.emptyList();
+    assertFalse(ListDiff.compute(empty, empty, CALLBACK).hasUpdates());
+    apply(empty, empty);
+  }
+
+  @Test public void fullReversal() {
+    final List<String> items = items("a:1", "b:1", "c:1", "d:1", "e:1", "f:1");
+    final List<String> reversed = new ArrayList<>(items);
+    Collections.reverse(reversed);
+    final Applier applier = apply(items, reversed);
+    // Only one item can stay in place
+    assertEquals(items.size() - 1, applier.moved);
+    assertEquals(0, applier.removed + applier.inserted + applier.changed);
+  }
+
+  @Test public void mixed() {
+    apply(items("a:1", "b:1", "c:1", "d:1", "e:1"), items("e:2", "x:1", "c:1", "a:1", "y:1"));
+  }
+}
@@ -0,0 +1,62 @@
+package com.indicator.viewpager;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PageMemoryBudgetTest {
+
+  /** A full-bleed 1080x600 ARGB_8888 banner image. */
+  private static final long PAGE_BYTES = 1080 * 600 * 4;
+  private static final int PAGES = 3;
+
+  private static int limitFor(int requestedLimit, int memoryClassMb, int trimLevel) {
+    return PageMemoryBudget.computeLimit(requestedLimit,
+        PageMemoryBudget.computeAutoBudget(memoryClassMb), PAGES, PAGES * PAGE_BYTES, trimLevel);
+  }
+
+  @Test public void autoBudgetIsAnEighthOfTheHeap() {
+    assertEquals(4L * 1024 * 1024, PageMemoryBudget.computeAutoBudget(32));
+    assertEquals(64L * 1024 * 1024, PageMemoryBudget.computeAutoBudget(512));
+  }
+
+  @Test public void lowMemoryClassKeepsOnePage() {
+    assertEquals(1, limitFor(1, 32, 0));
+    assertEquals(1, limitFor(4, 32, 0));
+  }
+
+  @Test public void normalMemoryClassRaisesTheDefaultLimit() {
+    assertEquals(2, limitFor(1, 128, 0));
+    assertEquals(2, limitFor(4, 128, 0));
+  }
+
+  @Test public void highMemoryClassRaisesUpToTheCap() {
+    assertEquals(PageMemoryBudget.MAX_BUDGET_LIMIT, limitFor(1, 512, 0));
+    // A higher requested limit is the cap instead
+    assertEquals(5, limitFor(5, 512, 0));
+  }
+
+  @Test public void trimDropsToOnePageFromRunningLow() {
+    assertEquals(PageMemoryBudget.MAX_BUDGET_LIMIT, limitFor(1, 512, TRIM_MEMORY_RUNNING_MODERATE));
+    assertEquals(1, limitFor(1, 512, TRIM_MEMORY_RUNNING_LOW));
+    assertEquals(1, limitFor(5, 512, TRIM_MEMORY_UI_HIDDEN));
+    assertEquals(1, limitFor(2, 128, TRIM_MEMORY_COMPLETE));
+    assertEquals(1, PageMemoryBudget.computeLimit(4, -1, PAGES, 0, TRIM_MEMORY_RUNNING_LOW));
+  }
+
+  @Test public void withoutBudgetOrEstimateTheRequestedLimitIsKept() {
+    assertEquals(1, PageMemoryBudget.computeLimit(1, -1, PAGES, PAGES * PAGE_BYTES, 0));
+    assertEquals(4, PageMemoryBudget.computeLimit(4, -1, PAGES, PAGES * PAGE_BYTES, 0));
+    // Nothing populated yet, or pages without bitmaps
+    assertEquals(2, PageMemoryBudget.computeLimit(2, 1024, 0, 0, 0));
+    assertEquals(2, PageMemoryBudget.computeLimit(2, 1024, PAGES, 0, 0));
+  }
+
+  @Test public void budgetBelowOnePageStillKeepsOne() {
+    assertEquals(1, PageMemoryBudget.computeLimit(3, 0, PAGES, PAGES * PAGE_BYTES, 0));
+  }
+}
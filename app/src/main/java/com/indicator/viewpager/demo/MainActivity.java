@@ -10,6 +10,8 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.Toast;
 import com.indicator.viewpager.IndicatorViewPager;
+import com.indicator.viewpager.ImagePagerAdapter;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,46 +32,39 @@ public class MainActivity extends AppCompatActivity {
     IndicatorViewPager ivp_test2= (IndicatorViewPager) findViewById(R.id.ivp_test2);
 
 
-    ivp_test1.setAdapter(new IvpAdapter(), ids.size(), 2000);
+    List<ImagePagerAdapter.ImageSource> sources = new ArrayList<>();
+    for (int id : ids) {
+      sources.add(ImagePagerAdapter.fromResource(getResources(), id));
+    }
+    IvpAdapter adapter = new IvpAdapter(sources);
+    adapter.setDiskCache(new File(getCacheDir(), "banner"), 10 * 1024 * 1024);
+    ivp_test1.setAdapter(adapter, 2000);
     ivp_test2.setAdapter(new IvpAdapter1());
   }
 
 
-  class IvpAdapter extends PagerAdapter
+  class IvpAdapter extends ImagePagerAdapter
   {
 
-    @Override public View instantiateItem(ViewGroup container,final int position) {
-
-      ImageView imageView = new ImageView(container.getContext());
-
-      imageView.setImageDrawable(getResources().getDrawable(ids.get(position%ids.size())));
-
-      container.addView(imageView, ViewGroup.LayoutParams.MATCH_PARENT,
-          ViewGroup.LayoutParams.MATCH_PARENT);
-
-      imageView.setOnClickListener(new View.OnClickListener() {
-        @Override public void onClick(View v) {
-          Toast.makeText(MainActivity.this, "点击--" + position % ids.size(), Toast.LENGTH_LONG).show();
-        }
-      });
+    private final View.OnClickListener mOnClickListener = new View.OnClickListener() {
+      @Override public void onClick(View v) {
+        Toast.makeText(MainActivity.this, "点击--" + v.getTag(), Toast.LENGTH_LONG).show();
+      }
+    };
 
-      return imageView;
-    }
-
-    @Override public void destroyItem(ViewGroup container, int position, Object object) {
-      container.removeView((View) object);
+    IvpAdapter(List<ImageSource> sources) {
+      super(sources);
     }
 
-    @Override
-    public int getCount()
-    {
-      return 100000;
+    @Override public View onCreateView(ViewGroup container, int viewType) {
+      View view = super.onCreateView(container, viewType);
+      view.setOnClickListener(mOnClickListener);
+      return view;
     }
 
-    @Override
-    public boolean isViewFromObject(View arg0, Object arg1)
-    {
-      return arg0==arg1;
+    @Override public void onBindView(View view, int position) {
+      super.onBindView(view, position);
+      view.setTag(position);
     }
 
   }